@@ -173,38 +173,45 @@ public class ClientMain {
             return;
         }
         try {
-            Response response = facade.getGames(session.authToken());
-            if (!Objects.equals(response.code(), 200)) {
-                handleErrors(response.code());
-            } else {
-                Map<String, Collection<Map<String, String>>> gamesResponse = serializer.fromJson(response.json(), Map.class);
-                Collection<Map<String, String>> games = gamesResponse.get("games");
-                listGames = games;
-                System.out.print(SET_TEXT_COLOR_MAGENTA);
-                System.out.printf("%-10s %-20s %-20s %-20s%n",
-                        "Game ID:", "Game Name:", "White:", "Black:");
-                System.out.print(RESET_TEXT_COLOR);
-                for (var game : games) {
-
-                    String white;
-                    String black;
-                    if (game.get("whiteUsername") == null) {
-                        white = SET_TEXT_COLOR_GREEN + String.format("%-20s", "AVAILABLE") + RESET_TEXT_COLOR;
-                    } else {
-                        white = SET_TEXT_COLOR_RED + String.format("%-20s", game.get("whiteUsername")) + RESET_TEXT_COLOR;
-                    }
-                    if (game.get("blackUsername") == null) {
-                        black = SET_TEXT_COLOR_GREEN + String.format("%-20s", "AVAILABLE") + RESET_TEXT_COLOR;
-                    } else {
-                        black = SET_TEXT_COLOR_RED + String.format("%-20s", game.get("blackUsername")) + RESET_TEXT_COLOR;
-                    }
-
-                    Object parse = game.get("gameID");
-                    int gameID = ((Number) parse).intValue();
-
-                    System.out.printf("%-10s %-20s %s %s %n",
-                            gameID, game.get("gameName"), white, black);
+            Collection<Map<String, String>> games = new ArrayList<>();
+            Integer cursor = null;
+            do {
+                Response response = facade.getGames(session.authToken(), cursor);
+                if (!Objects.equals(response.code(), 200)) {
+                    handleErrors(response.code());
+                    return;
+                }
+                Map<String, Object> gamesResponse = serializer.fromJson(response.json(), Map.class);
+                games.addAll((Collection<Map<String, String>>) gamesResponse.get("games"));
+                Object nextCursor = gamesResponse.get("nextCursor");
+                cursor = nextCursor == null ? null : ((Number) nextCursor).intValue();
+            } while (cursor != null);
+
+            listGames = games;
+            System.out.print(SET_TEXT_COLOR_MAGENTA);
+            System.out.printf("%-10s %-20s %-20s %-20s%n",
+                    "Game ID:", "Game Name:", "White:", "Black:");
+            System.out.print(RESET_TEXT_COLOR);
+            for (var game : games) {
+
+                String white;
+                String black;
+                if (game.get("whiteUsername") == null) {
+                    white = SET_TEXT_COLOR_GREEN + String.format("%-20s", "AVAILABLE") + RESET_TEXT_COLOR;
+                } else {
+                    white = SET_TEXT_COLOR_RED + String.format("%-20s", game.get("whiteUsername")) + RESET_TEXT_COLOR;
                 }
+                if (game.get("blackUsername") == null) {
+                    black = SET_TEXT_COLOR_GREEN + String.format("%-20s", "AVAILABLE") + RESET_TEXT_COLOR;
+                } else {
+                    black = SET_TEXT_COLOR_RED + String.format("%-20s", game.get("blackUsername")) + RESET_TEXT_COLOR;
+                }
+
+                Object parse = game.get("gameID");
+                int gameID = ((Number) parse).intValue();
+
+                System.out.printf("%-10s %-20s %s %s %n",
+                        gameID, game.get("gameName"), white, black);
             }
         } catch (Exception ex) {
             System.out.print(SET_TEXT_COLOR_RED + "ERROR: Server Error." + RESET_TEXT_COLOR + "\n");
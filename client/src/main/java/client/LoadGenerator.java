@@ -0,0 +1,355 @@
+package client;
+
+import chess.*;
+import com.google.gson.Gson;
+import requests.Response;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Plays many games against a running server at once and reports throughput and latency.
+ * <p>
+ * Every game gets two players and a number of observers. Each is registered through
+ * {@link ServerFacade} and connected with its own {@link WebSocket}. The two players
+ * take turns making random legal moves until the game ends or hits the ply limit. Two
+ * latencies are recorded for each move. The move latency runs from sending MAKE_MOVE
+ * until the mover gets the update back. The delivery latency runs until each other
+ * session in the game gets the update.
+ * <p>
+ * Point it at a server started with in-memory storage so no MySQL is needed:
+ * <pre>
+ *     java -Dchess.storage=memory -cp server.jar Main
+ *     java -cp client.jar client.LoadGenerator --games 50 --observers 2 --plies 60
+ * </pre>
+ * Options: --host, --port, --games, --observers, --plies, --think (ms between moves),
+ * --binary and --seed.
+ */
+public class LoadGenerator {
+    private static final long REPLY_TIMEOUT_MS = 10_000;
+
+    private final ServerFacade facade;
+    private final String webSocketUrl;
+    private final int games;
+    private final int observers;
+    private final int maxPlies;
+    private final long thinkMillis;
+    private final boolean binary;
+    private final long seed;
+    // unique per run, so a server that was not cleared still accepts the registrations
+    private final String runID = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Long> moveLatencies = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> deliveryLatencies = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger moves = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private final AtomicLong received = new AtomicLong();
+
+    public LoadGenerator(String host, int port, int games, int observers, int maxPlies, long thinkMillis,
+                         boolean binary, long seed) {
+        this.facade = new ServerFacade(host, port);
+        this.webSocketUrl = facade.webSocketUrl();
+        this.games = games;
+        this.observers = observers;
+        this.maxPlies = maxPlies;
+        this.thinkMillis = thinkMillis;
+        this.binary = binary;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        LoadGenerator generator = new LoadGenerator(
+                options.getOrDefault("host", "localhost"),
+                Integer.parseInt(options.getOrDefault("port", "8080")),
+                Integer.parseInt(options.getOrDefault("games", "20")),
+                Integer.parseInt(options.getOrDefault("observers", "2")),
+                Integer.parseInt(options.getOrDefault("plies", "80")),
+                Long.parseLong(options.getOrDefault("think", "0")),
+                options.containsKey("binary"),
+                Long.parseLong(options.getOrDefault("seed", "240")));
+
+        generator.run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Setting up %d games with %d observers each%n", games, observers);
+        List<Table> tables = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            tables.add(setUp(i));
+        }
+
+        System.out.println("Playing");
+        long started = System.nanoTime();
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Table table : tables) {
+                players.submit(() -> play(table));
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        for (Table table : tables) {
+            table.close();
+        }
+        report(elapsed);
+    }
+
+    /**
+     * Registers a game's players and observers, seats the players and connects everyone.
+     */
+    private Table setUp(int index) throws Exception {
+        String white = register("white" + index);
+        String black = register("black" + index);
+
+        Response created = facade.createGame(white, "load-" + runID + "-" + index);
+        int gameID = ((Number) json(created).get("gameID")).intValue();
+        check(facade.joinGame(white, "WHITE", gameID));
+        check(facade.joinGame(black, "BLACK", gameID));
+
+        Table table = new Table(gameID, new Random(seed + index));
+        table.white = table.connect(white);
+        table.black = table.connect(black);
+        for (int i = 0; i < observers; i++) {
+            table.connect(register("observer" + index + "x" + i));
+        }
+        for (Seat seat : table.seats) {
+            seat.await(LoadGameMessage.class);
+        }
+        return table;
+    }
+
+    private String register(String name) throws Exception {
+        String username = name + "-" + runID;
+        Response response = check(facade.createUser(username, "password", username + "@load.test"));
+        return (String) json(response).get("authToken");
+    }
+
+    /**
+     * Plays random legal moves, alternating sides, until the game ends or reaches the ply limit.
+     */
+    private void play(Table table) {
+        ChessGame game = new ChessGame();
+
+        try {
+            for (int ply = 0; ply < maxPlies; ply++) {
+                ChessMove move = randomMove(game, table.random);
+                if (move == null) {
+                    break;
+                }
+                Seat mover = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? table.white : table.black;
+
+                long sentAt = System.nanoTime();
+                table.sentAt.set(game.getPly() + 1, sentAt);
+                mover.connection.sendMove(new MakeMoveCommand(mover.authToken, table.gameID, move));
+                Received reply = mover.awaitPly(game.getPly() + 1);
+                if (reply.message() instanceof ErrorMessage) {
+                    errors.incrementAndGet();
+                    break;
+                }
+                moveLatencies.add(reply.at() - sentAt);
+                moves.incrementAndGet();
+
+                game.makeMove(move);
+                if (thinkMillis > 0) {
+                    Thread.sleep(thinkMillis);
+                }
+            }
+            finishedGames.incrementAndGet();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static ChessMove randomMove(ChessGame game, Random random) {
+        List<ChessMove> legal = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    legal.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return legal.isEmpty() ? null : legal.get(random.nextInt(legal.size()));
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.println();
+        System.out.printf("Games finished   %d of %d%n", finishedGames.get(), games);
+        System.out.printf("Moves            %d in %.2f s (%.1f moves/s)%n", moves.get(), seconds, moves.get() / seconds);
+        System.out.printf("Messages in      %d (%.1f/s)%n", received.get(), received.get() / seconds);
+        System.out.printf("Errors           %d%n", errors.get());
+        printLatency("Move round trip", moveLatencies);
+        printLatency("Delivery", deliveryLatencies);
+    }
+
+    private static void printLatency(String name, List<Long> samples) {
+        long[] sorted;
+        synchronized (samples) {
+            sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        if (sorted.length == 0) {
+            System.out.printf("%-16s no samples%n", name);
+            return;
+        }
+        System.out.printf("%-16s p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n", name,
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Response check(Response response) {
+        if (response.code() != 200) {
+            throw new IllegalStateException("server returned " + response.code() + ": " + response.json());
+        }
+        return response;
+    }
+
+    private static Map<?, ?> json(Response response) {
+        return new Gson().fromJson(check(response).json(), Map.class);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("unexpected argument " + args[i]);
+            }
+            String key = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            options.put(key, hasValue ? args[++i] : "true");
+        }
+        return options;
+    }
+
+    /**
+     * One game and everyone connected to it.
+     */
+    private class Table {
+        private final int gameID;
+        private final Random random;
+        private final List<Seat> seats = new ArrayList<>();
+        private Seat white;
+        private Seat black;
+        // when the move that leads to each ply was sent, so late deliveries match the right move
+        private final AtomicLongArray sentAt = new AtomicLongArray(maxPlies + 2);
+
+        private Table(int gameID, Random random) {
+            this.gameID = gameID;
+            this.random = random;
+        }
+
+        private Seat connect(String authToken) throws Exception {
+            Seat seat = new Seat(this, authToken);
+            seats.add(seat);
+            seat.connection.connect(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID));
+            return seat;
+        }
+
+        private void close() throws Exception {
+            for (Seat seat : seats) {
+                seat.connection.close();
+            }
+        }
+    }
+
+    /**
+     * A player's or observer's connection and the messages it has received.
+     */
+    private class Seat implements WebSocket.Listener {
+        private final Table table;
+        private final String authToken;
+        private final WebSocket connection;
+        private final BlockingQueue<Received> inbox = new LinkedBlockingQueue<>();
+
+        private Seat(Table table, String authToken) {
+            this.table = table;
+            this.authToken = authToken;
+            this.connection = new WebSocket(webSocketUrl, binary, this);
+        }
+
+        @Override
+        public void onMessage(Object message) {
+            long now = System.nanoTime();
+            received.incrementAndGet();
+
+            int ply = plyOf(message);
+            // odd plies are white's moves, and the mover's own copy is timed as the round trip
+            Seat mover = ply % 2 == 1 ? table.white : table.black;
+            if (ply > 0 && ply < table.sentAt.length() && table.sentAt.get(ply) != 0 && mover != this) {
+                deliveryLatencies.add(now - table.sentAt.get(ply));
+            }
+            inbox.add(new Received(message, now));
+        }
+
+        /**
+         * Waits for the next message of one of these types, skipping any others.
+         */
+        private Received await(Class<?>... types) throws InterruptedException, TimeoutException {
+            long deadline = System.currentTimeMillis() + REPLY_TIMEOUT_MS;
+            while (true) {
+                Received next = inbox.poll(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    throw new TimeoutException("no reply from game " + table.gameID);
+                }
+                for (Class<?> type : types) {
+                    if (type.isInstance(next.message())) {
+                        return next;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Waits for the update that leaves the game at {@code ply}, or for an error. Older
+         * updates still in the inbox, such as the opponent's last move, are skipped, since
+         * they were sent before the move being timed.
+         */
+        private Received awaitPly(int ply) throws InterruptedException, TimeoutException {
+            long deadline = System.currentTimeMillis() + REPLY_TIMEOUT_MS;
+            while (true) {
+                Received next = inbox.poll(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    throw new TimeoutException("no reply for ply " + ply + " from game " + table.gameID);
+                }
+                if (next.message() instanceof ErrorMessage || plyOf(next.message()) == ply) {
+                    return next;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the ply a game update leaves the game at, or 0 for any other message
+     */
+    private static int plyOf(Object message) {
+        if (message instanceof MoveMessage move) {
+            return move.getPly();
+        }
+        if (message instanceof LoadGameMessage loadGame) {
+            return loadGame.getGame().getPly();
+        }
+        return 0;
+    }
+
+    private record Received(Object message, long at) {
+    }
+}
@@ -20,8 +20,19 @@ public class ServerFacade {
     private final String webSocketUrl;
 
     public ServerFacade(int port) {
-        this.baseUrl = String.format(Locale.getDefault(),"http://localhost:" + port + "/");
-        this.webSocketUrl = String.format(Locale.getDefault(),"ws://localhost:" + port + "/");
+        this("localhost", port);
+    }
+
+    public ServerFacade(String host, int port) {
+        this.baseUrl = String.format(Locale.getDefault(),"http://" + host + ":" + port + "/");
+        this.webSocketUrl = String.format(Locale.getDefault(),"ws://" + host + ":" + port + "/");
+    }
+
+    /**
+     * @return the URL of the server's game WebSocket
+     */
+    public String webSocketUrl() {
+        return this.webSocketUrl + "ws";
     }
 
     public Response clear() throws URISyntaxException, IOException, InterruptedException {
@@ -72,7 +83,12 @@ public class ServerFacade {
     }
 
     public Response getGames(String authToken) throws URISyntaxException, IOException, InterruptedException {
-        var request = HttpRequest.newBuilder(new URI(this.baseUrl + "game"))
+        return getGames(authToken, null);
+    }
+
+    public Response getGames(String authToken, Integer cursor) throws URISyntaxException, IOException, InterruptedException {
+        String query = cursor == null ? "" : "?cursor=" + cursor;
+        var request = HttpRequest.newBuilder(new URI(this.baseUrl + "game" + query))
                 .GET()
                 .header("Authorization", authToken)
                 .build();
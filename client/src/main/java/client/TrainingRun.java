@@ -0,0 +1,43 @@
+package client;
+
+import chess.ChessGame;
+import jakarta.websocket.ContainerProvider;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static helpers.PrintBoard.printBoard;
+
+/**
+ * The training run for the client's class-data sharing archive. It goes through what the
+ * client does before it first talks to a server: printing the prompt help, rejecting a bad
+ * command, drawing the board from both sides and starting the WebSocket container. It then
+ * exits so the JVM can write every class it loaded to the archive. The cds profile runs it
+ * against the packaged jar:
+ * <pre>
+ *     mvn -Pcds verify
+ * </pre>
+ */
+public final class TrainingRun {
+
+    private TrainingRun() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            ClientMain.chessBoard.resetBoard();
+            ClientMain.parseCommand("help");
+            ClientMain.parseCommand("unknown");
+            printBoard(ClientMain.chessBoard, ChessGame.TeamColor.WHITE, List.of());
+            printBoard(ClientMain.chessBoard, ChessGame.TeamColor.BLACK, List.of());
+            ContainerProvider.getWebSocketContainer();
+        } finally {
+            System.setOut(console);
+        }
+        // the WebSocket container's threads are not daemon, and the archive is written at exit
+        System.exit(0);
+    }
+}
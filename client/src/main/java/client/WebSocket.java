@@ -1,16 +1,21 @@
 package client;
 
+import chess.ChessGame;
 import chess.ChessMove;
 import com.google.gson.Gson;
 import jakarta.websocket.*;
+import websocket.BinaryCodec;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
 import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
@@ -19,67 +24,171 @@ import static ui.EscapeSequences.*;
 
 @ClientEndpoint
 public class WebSocket {
-    private static Session session;
+    // run with -Dchess.binary=true to talk to the server in binary frames instead of JSON
+    private static final boolean BINARY = Boolean.getBoolean("chess.binary");
+    private static final String DEFAULT_URL = "ws://localhost:8080/ws";
+
+    // one container for every connection, so each does not start its own I/O threads
+    private static WebSocketContainer container;
+
+    /**
+     * Receives every decoded server message, on the container's thread, in place of the
+     * console output.
+     */
+    public interface Listener {
+        void onMessage(Object message);
+    }
+
+    private final String url;
+    private final boolean binary;
+    private final Listener listener;
+
+    private Session session;
+    private UserGameCommand joined;
+
+    /**
+     * A connection for the interactive client, which draws the board on the console.
+     */
+    public WebSocket() {
+        this(DEFAULT_URL, BINARY, null);
+    }
+
+    /**
+     * @param url      the server's WebSocket endpoint, e.g. ws://localhost:8080/ws
+     * @param listener receives server messages; null draws them on the console
+     */
+    public WebSocket(String url, boolean binary, Listener listener) {
+        this.url = url;
+        this.binary = binary;
+        this.listener = listener;
+    }
 
     @OnMessage
     public void onMessage(String message) throws IOException, ExecutionException, InterruptedException {
         var serializer = new Gson();
         try {
-            if (message.contains("NOTIFICATION")) {
-                NotificationMessage notification = serializer.fromJson(
-                        message, NotificationMessage.class
-                );
-                String notificationMessage = notification.getMessage();
-                System.out.print(SET_TEXT_COLOR_GREEN + notificationMessage + RESET_TEXT_COLOR + "\n");
-                System.out.print("[PLAYING] >>> ");
-            } else if (message.contains("ERROR")) {
-                ErrorMessage error = serializer.fromJson(
-                        message, ErrorMessage.class
-                );
-
-                String notificationMessage = error.getMessage();
-                System.out.print(SET_TEXT_COLOR_RED + notificationMessage + RESET_TEXT_COLOR + "\n");
-                System.out.print("[PLAYING] >>> ");
+            ServerMessage.ServerMessageType type = serializer.fromJson(message, ServerMessage.class)
+                    .getServerMessageType();
+
+            if (type == ServerMessage.ServerMessageType.MOVE) {
+                handle(serializer.fromJson(message, MoveMessage.class));
+            } else if (type == ServerMessage.ServerMessageType.NOTIFICATION) {
+                handle(serializer.fromJson(message, NotificationMessage.class));
+            } else if (type == ServerMessage.ServerMessageType.ERROR) {
+                handle(serializer.fromJson(message, ErrorMessage.class));
             } else {
-                LoadGameMessage command = serializer.fromJson(
-                        message, LoadGameMessage.class
-                );
-                System.out.print("\n");
-                ClientMain.chessGame = command.getGame();
-                ClientMain.chessBoard = ClientMain.chessGame.getBoard();
-                printBoard(ClientMain.chessBoard, ClientMain.color, null);
-                System.out.println();
-                System.out.print("[" + ClientMain.gameStatus + "] >>> ");
+                handle(serializer.fromJson(message, LoadGameMessage.class));
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
     }
 
-    public void resign(UserGameCommand resign) throws IOException, ExecutionException, InterruptedException {
-        var serializer = new Gson();
+    @OnMessage
+    public void onMessage(ByteBuffer message) {
+        try {
+            handle(BinaryCodec.decodeMessage(message));
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+    }
 
-        session.getBasicRemote().sendText(serializer.toJson(resign));
+    private void handle(Object message) throws IOException {
+        if (listener != null) {
+            listener.onMessage(message);
+            return;
+        }
+
+        if (message instanceof MoveMessage moveMessage) {
+            if (!applyMove(moveMessage)) {
+                // our board no longer matches the server's, so ask for the whole game
+                send(new UserGameCommand(
+                        UserGameCommand.CommandType.RESYNC, joined.getAuthToken(), joined.getGameID()));
+                return;
+            }
+            System.out.print("\n");
+            printBoard(ClientMain.chessBoard, ClientMain.color, null);
+            System.out.println();
+            System.out.print("[" + ClientMain.gameStatus + "] >>> ");
+        } else if (message instanceof NotificationMessage notification) {
+            String notificationMessage = notification.getMessage();
+            System.out.print(SET_TEXT_COLOR_GREEN + notificationMessage + RESET_TEXT_COLOR + "\n");
+            System.out.print("[PLAYING] >>> ");
+        } else if (message instanceof ErrorMessage error) {
+            String notificationMessage = error.getMessage();
+            System.out.print(SET_TEXT_COLOR_RED + notificationMessage + RESET_TEXT_COLOR + "\n");
+            System.out.print("[PLAYING] >>> ");
+        } else if (message instanceof LoadGameMessage command) {
+            System.out.print("\n");
+            ClientMain.chessGame = command.getGame();
+            ClientMain.chessBoard = ClientMain.chessGame.getBoard();
+            printBoard(ClientMain.chessBoard, ClientMain.color, null);
+            System.out.println();
+            System.out.print("[" + ClientMain.gameStatus + "] >>> ");
+        }
     }
 
-    public void leave(UserGameCommand leave) throws IOException, ExecutionException, InterruptedException {
-        var serializer = new Gson();
+    /**
+     * Plays a move from the server on the local copy of the game.
+     *
+     * @return false if the move does not follow on from our board or leaves a different
+     * position than the server's, in which case the board must be reloaded
+     */
+    private boolean applyMove(MoveMessage moveMessage) {
+        ChessGame game = ClientMain.chessGame;
+        if (game == null || moveMessage.getPly() != game.getPly() + 1) {
+            return false;
+        }
+
+        try {
+            game.makeMove(moveMessage.getMove());
+        } catch (Exception e) {
+            return false;
+        }
+        ClientMain.chessBoard = game.getBoard();
 
-        session.getBasicRemote().sendText(serializer.toJson(leave));
+        return game.positionHash() == moveMessage.getPositionHash();
     }
 
-    public void sendMove(MakeMoveCommand makeMove) throws IOException, ExecutionException, InterruptedException {
-        var serializer = new Gson();
+    private void send(UserGameCommand command) throws IOException {
+        if (binary) {
+            session.getBasicRemote().sendBinary(ByteBuffer.wrap(BinaryCodec.encodeCommand(command)));
+        } else {
+            session.getBasicRemote().sendText(new Gson().toJson(command));
+        }
+    }
 
-        session.getBasicRemote().sendText(serializer.toJson(makeMove));
+    public void resign(UserGameCommand resign) throws IOException, ExecutionException, InterruptedException {
+        send(resign);
+    }
+
+    public void leave(UserGameCommand leave) throws IOException, ExecutionException, InterruptedException {
+        send(leave);
+    }
+
+    public void sendMove(MakeMoveCommand makeMove) throws IOException, ExecutionException, InterruptedException {
+        send(makeMove);
     }
 
     public void connect(UserGameCommand connect) throws Exception {
-        var serializer = new Gson();
+        String endpoint = url + "?moves=true" + (binary ? "&format=binary" : "");
 
-        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-        session = container.connectToServer(this, URI.create("ws://localhost:8080/ws"));
+        session = container().connectToServer(this, URI.create(endpoint));
+        joined = connect;
 
-        session.getBasicRemote().sendText(serializer.toJson(connect));
+        send(connect);
+    }
+
+    public void close() throws IOException {
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    private static synchronized WebSocketContainer container() {
+        if (container == null) {
+            container = ContainerProvider.getWebSocketContainer();
+        }
+        return container;
     }
 }
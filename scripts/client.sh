@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+# Starts the console client from its packaged jar, with the class-data sharing archive
+# recorded by `mvn -Pcds verify` when there is one. Arguments are passed to the JVM, e.g.
+#     scripts/client.sh -Dchess.binary=true
+# Set CHESS_CDS=off to start without the archive.
+set -euo pipefail
+
+root="$(cd "$(dirname "$0")/.." && pwd)"
+jar="$root/client/target/client-test-dependencies.jar"
+archive="$root/client/target/client.jsa"
+
+cds=()
+if [[ -f "$archive" && "${CHESS_CDS:-on}" != "off" ]]; then
+    cds=(-XX:SharedArchiveFile="$archive" -Xshare:auto)
+fi
+
+# ClientMain uses an instance main method, which Java 21 launches as a preview feature
+exec java --enable-preview "${cds[@]}" "$@" -jar "$jar"
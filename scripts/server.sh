@@ -0,0 +1,19 @@
+#!/usr/bin/env bash
+# Starts the server from its packaged jar. If `mvn -Pcds verify` has recorded a class-data
+# sharing archive, the JVM maps the archived classes instead of loading them from the jar.
+# Arguments are passed to the JVM, e.g.
+#     scripts/server.sh -Dchess.storage=memory -Dchess.server.port=9090
+# Set CHESS_CDS=off to start without the archive.
+set -euo pipefail
+
+root="$(cd "$(dirname "$0")/.." && pwd)"
+jar="$root/server/target/server-test-dependencies.jar"
+archive="$root/server/target/server.jsa"
+
+cds=()
+# an archive only matches the jar it was recorded from; -Xshare:auto falls back quietly if it does not
+if [[ -f "$archive" && "${CHESS_CDS:-on}" != "off" ]]; then
+    cds=(-XX:SharedArchiveFile="$archive" -Xshare:auto)
+fi
+
+exec java "${cds[@]}" "$@" -jar "$jar"
@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Measures start-up time with and without the class-data sharing archives recorded by
+# `mvn -Pcds verify`. Run it after packaging:
+#     scripts/startup-benchmark.sh [runs]
+#
+# For the server, each run starts the jar on in-memory storage and reports two times:
+#   listening - the first HTTP answer from GET /ready, of any status
+#   ready     - GET /ready returns 200, once the schema is checked and warmup has finished
+# For the client, each run times the console client from launch to exit on `quit`.
+# The median of the runs is printed for each.
+set -euo pipefail
+
+runs="${1:-5}"
+port="${BENCHMARK_PORT:-18080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+server_jar="$root/server/target/server-test-dependencies.jar"
+server_archive="$root/server/target/server.jsa"
+client_jar="$root/client/target/client-test-dependencies.jar"
+client_archive="$root/client/target/client.jsa"
+
+for file in "$server_jar" "$server_archive" "$client_jar" "$client_archive"; do
+    if [[ ! -f "$file" ]]; then
+        echo "missing $file; build with: mvn -Pcds -DskipTests verify" >&2
+        exit 1
+    fi
+done
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+# prints "<listening ms> <ready ms>" for one server start; arguments go to the JVM
+server_run() {
+    local start listening="" status pid
+    start=$(now_ms)
+    java "$@" -Dchess.storage=memory -Dchess.server.port="$port" -jar "$server_jar" >/dev/null 2>&1 &
+    pid=$!
+    while true; do
+        status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/ready" || true)
+        if [[ -z "$listening" && "$status" != "000" ]]; then
+            listening=$(( $(now_ms) - start ))
+        fi
+        if [[ "$status" == "200" ]]; then
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "server exited during start-up" >&2
+            return 1
+        fi
+        sleep 0.005
+    done
+    echo "$listening $(( $(now_ms) - start ))"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+# prints the milliseconds from launching the client to its exit; arguments go to the JVM
+client_run() {
+    local start
+    start=$(now_ms)
+    echo quit | java --enable-preview "$@" -jar "$client_jar" >/dev/null 2>&1
+    echo $(( $(now_ms) - start ))
+}
+
+report_server() {
+    local name="$1" results
+    shift
+    results=$(for _ in $(seq "$runs"); do server_run "$@"; done)
+    printf '%-24s listening %5d ms   ready %5d ms\n' "$name" \
+        "$(cut -d' ' -f1 <<< "$results" | median)" "$(cut -d' ' -f2 <<< "$results" | median)"
+}
+
+report_client() {
+    local name="$1"
+    shift
+    printf '%-24s exit      %5d ms\n' "$name" "$(for _ in $(seq "$runs"); do client_run "$@"; done | median)"
+}
+
+echo "Median of $runs runs"
+report_server "server" -Xshare:auto
+report_server "server + archive" -XX:SharedArchiveFile="$server_archive" -Xshare:auto
+report_client "client" -Xshare:auto
+report_client "client + archive" -XX:SharedArchiveFile="$client_archive" -Xshare:auto
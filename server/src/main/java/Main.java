@@ -1,10 +1,11 @@
+import config.ServerConfig;
 import server.Server;
 
 public class Main {
     public static void main(String[] args) {
         Server server = new Server();
-        server.run(8080);
+        server.run(ServerConfig.getInt("server.port", 8080));
 
         System.out.println("♕ 240 Chess Server");
     }
-}
\ No newline at end of file
+}
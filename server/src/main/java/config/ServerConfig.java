@@ -0,0 +1,64 @@
+package config;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Server settings, read from server.properties on the classpath. Any key can be
+ * overridden at launch with a system property of the same name prefixed by "chess.",
+ * e.g. -Dchess.bcrypt.cost=12.
+ */
+public class ServerConfig {
+    private static final Properties properties = new Properties();
+
+    static {
+        loadPropertiesFromResources();
+    }
+
+    public static String getString(String key, String defaultValue) {
+        return System.getProperty("chess." + key, properties.getProperty(key, defaultValue));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    private static void loadPropertiesFromResources() {
+        try (InputStream propStream = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream("server.properties")) {
+            if (propStream != null) {
+                properties.load(propStream);
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException("unable to process server.properties", ex);
+        }
+    }
+}
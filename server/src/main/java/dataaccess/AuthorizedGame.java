@@ -0,0 +1,12 @@
+package dataaccess;
+
+import model.AuthData;
+import model.GameData;
+
+/**
+ * A session together with the game a command names, resolved in one lookup.
+ *
+ * @param game null if no game has the requested gameID
+ */
+public record AuthorizedGame(AuthData auth, GameData game) {
+}
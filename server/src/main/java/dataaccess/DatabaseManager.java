@@ -1,14 +1,29 @@
 package dataaccess;
 
+import config.ServerConfig;
+import tracing.Span;
+import tracing.Tracer;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
 
 public class DatabaseManager {
     private static String databaseName;
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    // connectionUrl with the database selected, so statements need no USE round trip first
+    private static String databaseUrl;
+
+    /*
+     * Caps how many statements hold a connection at once. With handlers on virtual threads
+     * there is no thread pool left to do this, and thousands of players would otherwise
+     * open thousands of connections and exhaust the server's max_connections.
+     */
+    private static final Semaphore connectionPermits =
+            new Semaphore(ServerConfig.getInt("db.maxConnections", 32), true);
 
     /*
      * Load the database information for the db.properties file.
@@ -17,29 +32,61 @@ public class DatabaseManager {
         loadPropertiesFromResources();
     }
 
-    static public void executeUpdate(String statement) throws SQLException {
-        var initialize = "USE " + databaseName;
-        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-             var initializeStatement = conn.prepareStatement(initialize)) {
-            initializeStatement.executeUpdate();
+    static public int executeUpdate(String statement, Object... params) throws SQLException {
+        Span span = Tracer.span("sql").tag("statement", statement);
+        acquireConnectionPermit();
+        try (var conn = DriverManager.getConnection(databaseUrl, dbUsername, dbPassword)) {
+            RoundTrips.record();
 
             var preparedStatement = conn.prepareStatement(statement);
-            preparedStatement.executeUpdate();
+            bindParams(preparedStatement, params);
+            return preparedStatement.executeUpdate();
 
         } catch (SQLException ex) {
             throw new SQLException("failed to create database", ex);
+        } finally {
+            connectionPermits.release();
+            span.close();
+        }
+    }
+
+    /**
+     * Runs an INSERT and returns the key the database generated for the new row.
+     */
+    static public int executeInsert(String statement, Object... params) throws SQLException {
+        Span span = Tracer.span("sql").tag("statement", statement);
+        acquireConnectionPermit();
+        try (var conn = DriverManager.getConnection(databaseUrl, dbUsername, dbPassword)) {
+            RoundTrips.record();
+
+            var preparedStatement = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS);
+            bindParams(preparedStatement, params);
+            preparedStatement.executeUpdate();
+
+            var keys = preparedStatement.getGeneratedKeys();
+            if (!keys.next()) {
+                throw new SQLException("no key generated");
+            }
+            return keys.getInt(1);
+
+        } catch (SQLException ex) {
+            throw new SQLException("failed to insert", ex);
+        } finally {
+            connectionPermits.release();
+            span.close();
         }
     }
 
-    static public ArrayList<ArrayList<String>> executeQuery(String statement) throws SQLException {
-        var initialize = "USE " + databaseName;
+    static public ArrayList<ArrayList<String>> executeQuery(String statement, Object... params) throws SQLException {
         var results = new ArrayList<ArrayList<String>>();
+        Span span = Tracer.span("sql").tag("statement", statement);
+        acquireConnectionPermit();
 
-        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-             var initializeStatement = conn.prepareStatement(initialize)) {
-            initializeStatement.executeUpdate();
+        try (var conn = DriverManager.getConnection(databaseUrl, dbUsername, dbPassword)) {
+            RoundTrips.record();
 
             var preparedStatement = conn.prepareStatement(statement);
+            bindParams(preparedStatement, params);
             var result = preparedStatement.executeQuery();
 
             int columnCount = result.getMetaData().getColumnCount();
@@ -57,6 +104,31 @@ public class DatabaseManager {
 
         } catch (SQLException ex) {
             throw new SQLException("failed to create database", ex);
+        } finally {
+            connectionPermits.release();
+            span.close();
+        }
+    }
+
+    /**
+     * Waits for a free connection slot. Semaphore parks rather than pins, so a virtual
+     * thread waiting here gives its carrier back to the scheduler.
+     */
+    private static void acquireConnectionPermit() throws SQLException {
+        try {
+            connectionPermits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for a connection", ex);
+        }
+    }
+
+    /**
+     * Binds positional parameters to a prepared statement, in order.
+     */
+    private static void bindParams(PreparedStatement preparedStatement, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            preparedStatement.setObject(i + 1, params[i]);
         }
     }
 
@@ -64,35 +136,114 @@ public class DatabaseManager {
      * Creates the database if it does not already exist.
      */
     static public void createDatabase() throws SQLException {
-        var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
-        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-             var preparedStatement = conn.prepareStatement(statement)) {
-            preparedStatement.executeUpdate();
+        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword)) {
+            createDatabase(conn);
         } catch (SQLException ex) {
             throw new SQLException("failed to create database", ex);
         }
     }
 
     static public void createTables() throws SQLException {
-        String[] statements = new String[4];
+        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword)) {
+            conn.setCatalog(databaseName);
+            createTables(conn);
+        } catch (SQLException ex) {
+            throw new SQLException("failed to create database", ex);
+        }
+    }
 
-        statements[0] = "USE " + databaseName + ";";
-        statements[1] = "CREATE TABLE IF NOT EXISTS users (username VARCHAR(100) PRIMARY KEY, " +
-                "password VARCHAR(100) NOT NULL, email VARCHAR(100) NOT NULL);";
-        statements[2] = "CREATE TABLE IF NOT EXISTS sessions (authToken VARCHAR(100) " +
-                "PRIMARY KEY, username VARCHAR(100) NOT NULL);";
-        statements[3] = "CREATE TABLE IF NOT EXISTS games (gameID int PRIMARY KEY, whiteUsername VARCHAR(100), blackUsername " +
-                "VARCHAR(100), gameName VARCHAR(100), game JSON);";
+    /**
+     * Creates the database and brings its tables up to date over one connection, rather
+     * than one for the database and another for the tables.
+     */
+    static public void createSchema() throws SQLException {
         try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword)) {
-             for (String statement : statements) {
-                 var preparedStatement = conn.prepareStatement(statement);
-                 preparedStatement.executeUpdate();
-             }
+            createDatabase(conn);
+            conn.setCatalog(databaseName);
+            createTables(conn);
         } catch (SQLException ex) {
             throw new SQLException("failed to create database", ex);
         }
     }
 
+    private static void createDatabase(Connection conn) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement("CREATE DATABASE IF NOT EXISTS " + databaseName)) {
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private static void createTables(Connection conn) throws SQLException {
+        String[] statements = new String[3];
+
+        statements[0] = "CREATE TABLE IF NOT EXISTS users (username VARCHAR(100) PRIMARY KEY, " +
+                "password VARCHAR(100) NOT NULL, email VARCHAR(100) NOT NULL);";
+        statements[1] = "CREATE TABLE IF NOT EXISTS sessions (authToken VARCHAR(100) " +
+                "PRIMARY KEY, username VARCHAR(100) NOT NULL);";
+        statements[2] = "CREATE TABLE IF NOT EXISTS games (gameID int NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                "whiteUsername VARCHAR(100), blackUsername VARCHAR(100), gameName VARCHAR(100), game JSON, " +
+                "version int NOT NULL DEFAULT 0, status VARCHAR(16) NOT NULL DEFAULT 'NORMAL', " +
+                "INDEX games_status (status, gameID));";
+        for (String statement : statements) {
+            var preparedStatement = conn.prepareStatement(statement);
+            preparedStatement.executeUpdate();
+        }
+        // tables created before IDs were allocated by the database
+        makeAutoIncrement(conn, "games", "gameID", "int NOT NULL");
+        addColumnIfMissing(conn, "games", "version", "int NOT NULL DEFAULT 0");
+        addColumnIfMissing(conn, "games", "status", "VARCHAR(16) NOT NULL DEFAULT 'NORMAL'");
+        addIndexIfMissing(conn, "games", "games_status", "(status, gameID)");
+    }
+
+    /**
+     * Upgrades a table created by an older version of the server. MySQL has no
+     * ADD COLUMN IF NOT EXISTS, so the column is looked up in information_schema first.
+     */
+    private static void addColumnIfMissing(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        var lookup = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA=? AND TABLE_NAME=? AND COLUMN_NAME=?;");
+        bindParams(lookup, databaseName, table, column);
+        var result = lookup.executeQuery();
+
+        if (result.next() && result.getInt(1) == 0) {
+            conn.prepareStatement("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition + ";")
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Makes a column AUTO_INCREMENT if it is not already. MODIFY can rebuild the table, so
+     * information_schema is checked first rather than running it on every startup.
+     */
+    private static void makeAutoIncrement(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        var lookup = conn.prepareStatement("SELECT EXTRA FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA=? AND TABLE_NAME=? AND COLUMN_NAME=?;");
+        bindParams(lookup, databaseName, table, column);
+        var result = lookup.executeQuery();
+
+        if (result.next() && !result.getString(1).toLowerCase().contains("auto_increment")) {
+            conn.prepareStatement("ALTER TABLE " + table + " MODIFY " + column + " " + definition +
+                    " AUTO_INCREMENT;").executeUpdate();
+        }
+    }
+
+    /**
+     * Adds an index to a table created before it was part of the schema, looked up in
+     * information_schema for the same reason as {@link #addColumnIfMissing}.
+     */
+    private static void addIndexIfMissing(Connection conn, String table, String index, String columns)
+            throws SQLException {
+        var lookup = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA=? AND TABLE_NAME=? AND INDEX_NAME=?;");
+        bindParams(lookup, databaseName, table, index);
+        var result = lookup.executeQuery();
+
+        if (result.next() && result.getInt(1) == 0) {
+            conn.prepareStatement("CREATE INDEX " + index + " ON " + table + " " + columns + ";").executeUpdate();
+        }
+    }
+
     /**
      * Create a connection to the database and sets the catalog based upon the
      * properties specified in db.properties. Connections to the database should
@@ -137,5 +288,6 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        databaseUrl = connectionUrl + "/" + databaseName;
     }
 }
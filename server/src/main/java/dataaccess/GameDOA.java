@@ -2,7 +2,12 @@ package dataaccess;
 
 import chess.ChessGame;
 import com.google.gson.Gson;
+import model.AuthData;
 import model.GameData;
+import model.GameSummary;
+import tracing.GameReadEvent;
+import tracing.GameWriteEvent;
+import tracing.SerializationEvent;
 
 import java.sql.SQLException;
 import java.util.Collection;
@@ -10,41 +15,82 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import static dataaccess.DatabaseManager.executeInsert;
 import static dataaccess.DatabaseManager.executeQuery;
 import static dataaccess.DatabaseManager.executeUpdate;
 
-public class GameDOA implements InterfaceDOA<GameData> {
+public class GameDOA implements InterfaceGameDOA {
     public GameData parseRow(ArrayList<String> row) {
         int gameID = Integer.parseInt(row.get(0));
         var serializer = new Gson();
+
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         ChessGame game = serializer.fromJson(row.get(4), ChessGame.class);
-        String whiteUsername = row.get(1);
-        if (Objects.equals(whiteUsername, "null")) {
-            whiteUsername = null;
-        }
-        String blackUsername = row.get(2);
-        if (Objects.equals(blackUsername, "null")) {
-            blackUsername = null;
+        if (event.shouldCommit()) {
+            event.type = "ChessGame";
+            event.format = "json";
+            event.direction = "decode";
+            event.gameID = gameID;
+            event.payloadSize = row.get(4) == null ? 0 : row.get(4).length();
+            event.commit();
         }
-        String gameName = row.get(3);
-        if (Objects.equals(gameName, "null")) {
-            gameName = null;
+
+        int version = Integer.parseInt(row.get(5));
+        return new GameData(gameID, nullable(row.get(1)), nullable(row.get(2)), nullable(row.get(3)), game, version,
+                row.get(6));
+    }
+
+    public GameSummary parseSummaryRow(ArrayList<String> row) {
+        int gameID = Integer.parseInt(row.get(0));
+        return new GameSummary(gameID, nullable(row.get(1)), nullable(row.get(2)), nullable(row.get(3)), row.get(4));
+    }
+
+    private static String nullable(String column) {
+        if (Objects.equals(column, "null")) {
+            return null;
         }
-        return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+        return column;
     }
 
     @Override
     public void create(GameData game) throws SQLException {
         var serializer = new Gson();
 
-        String gameName = game.gameName();
-        if (gameName != null) {
-            gameName = game.gameName().replace("'", "''");
+        executeUpdate("INSERT INTO games (gameID, whiteUsername, blackUsername, gameName, game, version, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?);", game.gameID(), game.whiteUsername(), game.blackUsername(),
+                game.gameName(), serializer.toJson(game.game()), game.version(), game.status());
+    }
+
+    @Override
+    public int insert(GameData game) throws SQLException {
+        var serializer = new Gson();
+
+        return executeInsert("INSERT INTO games (whiteUsername, blackUsername, gameName, game, status) " +
+                "VALUES (?, ?, ?, ?, ?);", game.whiteUsername(), game.blackUsername(), game.gameName(),
+                serializer.toJson(game.game()), game.status());
+    }
+
+    @Override
+    public AuthorizedGame getAuthorized(String authToken, int gameID) throws SQLException {
+        GameReadEvent event = new GameReadEvent();
+        event.begin();
+
+        ArrayList<ArrayList<String>> result = executeQuery("SELECT s.authToken, s.username, g.gameID, " +
+                "g.whiteUsername, g.blackUsername, g.gameName, g.game, g.version, g.status FROM sessions s " +
+                "LEFT JOIN games g ON g.gameID=? WHERE s.authToken=?;", gameID, authToken);
+
+        if (result.isEmpty()) {
+            return null;
         }
 
-        executeUpdate("INSERT INTO games VALUES('" +
-                game.gameID() + "','" + game.whiteUsername() + "','" + game.blackUsername() +
-                "','" + gameName + "','" + serializer.toJson(game.game()) + "');");
+        ArrayList<String> row = result.get(0);
+        AuthData auth = new AuthData(row.get(0), row.get(1));
+        // the game columns are all NULL when the session exists but the game does not
+        GameData game = row.get(2) == null ? null : parseRow(new ArrayList<>(row.subList(2, row.size())));
+
+        commitRead(event, gameID, game == null ? null : row.get(6));
+        return new AuthorizedGame(auth, game);
     }
 
     @Override
@@ -52,7 +98,7 @@ public class GameDOA implements InterfaceDOA<GameData> {
 
         if (str == null) {
             ArrayList<ArrayList<String>> result = executeQuery("SELECT gameID, whiteUsername, blackUsername, " +
-                    "gameName, game FROM games ORDER BY gameID DESC LIMIT 1;");
+                    "gameName, game, version, status FROM games ORDER BY gameID DESC LIMIT 1;");
 
             if (result.isEmpty()) {
                 return null;
@@ -62,16 +108,34 @@ public class GameDOA implements InterfaceDOA<GameData> {
 
             return parseRow(row);
         } else {
+            GameReadEvent event = new GameReadEvent();
+            event.begin();
+
             ArrayList<ArrayList<String>> result = executeQuery("SELECT gameID, whiteUsername, blackUsername, " +
-                    "gameName, game FROM games WHERE gameID='" + str + "';");
+                    "gameName, game, version, status FROM games WHERE gameID=?;", str);
 
             if (result.isEmpty()) {
+                commitRead(event, 0, null);
                 return null;
             }
 
             ArrayList<String> row = result.get(0);
 
-            return parseRow(row);
+            GameData game = parseRow(row);
+            commitRead(event, game.gameID(), row.get(4));
+            return game;
+        }
+    }
+
+    /**
+     * @param json the game column that was read, or null if no game was found
+     */
+    private static void commitRead(GameReadEvent event, int gameID, String json) {
+        if (event.shouldCommit()) {
+            event.gameID = gameID;
+            event.found = json != null;
+            event.payloadSize = json == null ? 0 : json.length();
+            event.commit();
         }
     }
 
@@ -89,7 +153,8 @@ public class GameDOA implements InterfaceDOA<GameData> {
     public Collection<GameData> list() throws SQLException {
         List<GameData> games = new ArrayList<>();
 
-        ArrayList<ArrayList<String>> result = executeQuery("SELECT gameID, whiteUsername, blackUsername, gameName, game FROM games;");
+        ArrayList<ArrayList<String>> result = executeQuery("SELECT gameID, whiteUsername, blackUsername, gameName, game, " +
+                "version, status FROM games;");
         if(result.isEmpty()) {
             return games;
         }
@@ -101,20 +166,55 @@ public class GameDOA implements InterfaceDOA<GameData> {
         return games;
     }
 
+    @Override
+    public Collection<GameSummary> listSummaries(int afterGameID, int limit, String status) throws SQLException {
+        List<GameSummary> games = new ArrayList<>();
+
+        ArrayList<ArrayList<String>> result;
+        if (status == null) {
+            result = executeQuery("SELECT gameID, whiteUsername, blackUsername, gameName, status " +
+                    "FROM games WHERE gameID > ? ORDER BY gameID LIMIT ?;", afterGameID, limit);
+        } else {
+            // served from the (status, gameID) index: one range scan starting at the cursor
+            result = executeQuery("SELECT gameID, whiteUsername, blackUsername, gameName, status " +
+                    "FROM games WHERE status=? AND gameID > ? ORDER BY gameID LIMIT ?;", status, afterGameID, limit);
+        }
+
+        for (ArrayList<String> row : result) {
+            games.add(parseSummaryRow(row));
+        }
+
+        return games;
+    }
+
+    /**
+     * Replaces a game only if the stored row still has the version of the given data,
+     * bumping the version on success.
+     *
+     * @throws VersionConflictException if the row was changed or removed since it was read
+     */
     @Override
     public void replace(GameData data) throws SQLException {
         var serializer = new Gson();
 
-        String gameName = data.gameName();
-        if (gameName != null) {
-            gameName = data.gameName().replace("'", "''");
+        GameWriteEvent event = new GameWriteEvent();
+        event.begin();
+
+        String json = serializer.toJson(data.game());
+        int updated = executeUpdate("UPDATE games SET whiteUsername=?, blackUsername=?, gameName=?, game=?, " +
+                "status=?, version=version + 1 WHERE gameID=? AND version=?;", data.whiteUsername(),
+                data.blackUsername(), data.gameName(), json, data.status(), data.gameID(), data.version());
+
+        if (event.shouldCommit()) {
+            event.gameID = data.gameID();
+            event.ply = data.game() == null ? 0 : data.game().getPly();
+            event.payloadSize = json.length();
+            event.conflict = updated == 0;
+            event.commit();
         }
 
-        executeUpdate("UPDATE games " +
-                "SET whiteUsername='" + data.whiteUsername() +
-                "', blackUsername='" + data.blackUsername() +
-                "', gameName='" + gameName +
-                "', game='" + serializer.toJson(data.game()) +
-                "' WHERE gameID='" + data.gameID() + "';");
+        if (updated == 0) {
+            throw new VersionConflictException("game " + data.gameID() + " is not at version " + data.version());
+        }
     }
 }
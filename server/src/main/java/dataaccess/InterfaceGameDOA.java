@@ -0,0 +1,39 @@
+package dataaccess;
+
+import model.GameData;
+import model.GameSummary;
+
+import java.sql.SQLException;
+import java.util.Collection;
+
+public interface InterfaceGameDOA extends InterfaceDOA<GameData> {
+    /**
+     * Inserts a new game, letting the store allocate its gameID atomically.
+     * The gameID of the given data is ignored.
+     *
+     * @return the allocated gameID
+     */
+    int insert(GameData game) throws SQLException;
+
+    /**
+     * Lists one page of games in ascending gameID order, without loading any boards.
+     *
+     * @param afterGameID only games with a gameID greater than this are returned
+     * @param limit       the maximum number of games to return
+     */
+    default Collection<GameSummary> listSummaries(int afterGameID, int limit) throws SQLException {
+        return listSummaries(afterGameID, limit, null);
+    }
+
+    /**
+     * Lists one page of games with the given status, or of all games if status is null.
+     */
+    Collection<GameSummary> listSummaries(int afterGameID, int limit, String status) throws SQLException;
+
+    /**
+     * Looks up a session and a game together, in a single round trip to the store.
+     *
+     * @return null if no session has this auth token
+     */
+    AuthorizedGame getAuthorized(String authToken, int gameID) throws SQLException;
+}
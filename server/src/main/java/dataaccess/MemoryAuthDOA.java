@@ -0,0 +1,77 @@
+package dataaccess;
+
+import com.google.gson.Gson;
+import model.AuthData;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class MemoryAuthDOA implements InterfaceDOA<AuthData> {
+    static final String TABLE = "sessions";
+
+    private final Map<String, AuthData> sessions = new ConcurrentHashMap<>();
+    private final StorageLog log;
+    private final Gson serializer = new Gson();
+
+    public MemoryAuthDOA(StorageLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public void create(AuthData auth) throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "put", auth.authToken(), serializer.toJsonTree(auth)),
+                () -> {
+                    if (sessions.putIfAbsent(auth.authToken(), auth) != null) {
+                        throw new SQLException("duplicate authToken");
+                    }
+                });
+    }
+
+    @Override
+    public AuthData get(String authToken) {
+        if (authToken == null) {
+            return null;
+        }
+        return sessions.get(authToken);
+    }
+
+    @Override
+    public void delete(AuthData auth) throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "delete", auth.authToken(), null),
+                () -> sessions.remove(auth.authToken()));
+    }
+
+    @Override
+    public void clear() throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "clear", null, null), sessions::clear);
+    }
+
+    @Override
+    public Collection<AuthData> list() {
+        return new HashSet<>(sessions.values());
+    }
+
+    @Override
+    public void replace(AuthData data) {
+
+    }
+
+    void apply(StorageLog.Entry entry) {
+        switch (entry.op()) {
+            case "put" -> sessions.put(entry.key(), serializer.fromJson(entry.row(), AuthData.class));
+            case "delete" -> sessions.remove(entry.key());
+            case "clear" -> sessions.clear();
+            default -> throw new IllegalStateException("unknown log operation: " + entry.op());
+        }
+    }
+
+    void snapshot(Consumer<StorageLog.Entry> sink) {
+        for (AuthData auth : sessions.values()) {
+            sink.accept(new StorageLog.Entry(TABLE, "put", auth.authToken(), serializer.toJsonTree(auth)));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package dataaccess;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-memory games, kept in gameID order so listing pages are a tail-map walk. Boards
+ * are held as JSON, like the game column in MySQL, so callers always get their own
+ * copy to mutate and a replace is a single compare-and-set on the row.
+ */
+public class MemoryGameDOA implements InterfaceGameDOA {
+    static final String TABLE = "games";
+
+    private record Row(int gameID, String whiteUsername, String blackUsername, String gameName, String game,
+                       int version, String status) {}
+
+    private final ConcurrentSkipListMap<Integer, Row> games = new ConcurrentSkipListMap<>();
+    private final AtomicInteger lastGameID = new AtomicInteger();
+    private final StorageLog log;
+    private final MemoryAuthDOA sessions;
+    private final Gson serializer = new Gson();
+
+    /**
+     * @param sessions the session store, for lookups that resolve a session and a game together
+     */
+    public MemoryGameDOA(StorageLog log, MemoryAuthDOA sessions) {
+        this.log = log;
+        this.sessions = sessions;
+    }
+
+    private Row toRow(int gameID, GameData game, int version) {
+        return new Row(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                serializer.toJson(game.game()), version, game.status());
+    }
+
+    private GameData toGameData(Row row) {
+        return new GameData(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(),
+                serializer.fromJson(row.game(), ChessGame.class), row.version(), row.status());
+    }
+
+    private StorageLog.Entry putEntry(Row row) {
+        return new StorageLog.Entry(TABLE, "put", String.valueOf(row.gameID()), serializer.toJsonTree(row));
+    }
+
+    @Override
+    public void create(GameData game) throws SQLException {
+        Row row = toRow(game.gameID(), game, game.version());
+
+        StorageLog.record(log, () -> putEntry(row), () -> {
+            if (games.putIfAbsent(row.gameID(), row) != null) {
+                throw new SQLException("duplicate gameID " + row.gameID());
+            }
+            lastGameID.accumulateAndGet(row.gameID(), Math::max);
+        });
+    }
+
+    @Override
+    public int insert(GameData game) throws SQLException {
+        Row row = toRow(lastGameID.incrementAndGet(), game, 0);
+
+        StorageLog.record(log, () -> putEntry(row), () -> {
+            if (games.putIfAbsent(row.gameID(), row) != null) {
+                throw new SQLException("duplicate gameID " + row.gameID());
+            }
+        });
+        return row.gameID();
+    }
+
+    @Override
+    public AuthorizedGame getAuthorized(String authToken, int gameID) {
+        AuthData auth = sessions.get(authToken);
+        if (auth == null) {
+            return null;
+        }
+        Row row = games.get(gameID);
+        return new AuthorizedGame(auth, row == null ? null : toGameData(row));
+    }
+
+    @Override
+    public GameData get(String str) {
+        Row row;
+        if (str == null) {
+            Map.Entry<Integer, Row> last = games.lastEntry();
+            row = last == null ? null : last.getValue();
+        } else {
+            try {
+                row = games.get(Integer.parseInt(str));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        return row == null ? null : toGameData(row);
+    }
+
+    @Override
+    public void delete(GameData game) throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "delete", String.valueOf(game.gameID()), null),
+                () -> games.remove(game.gameID()));
+    }
+
+    @Override
+    public void clear() throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "clear", null, null), games::clear);
+    }
+
+    @Override
+    public Collection<GameData> list() {
+        List<GameData> list = new ArrayList<>();
+        for (Row row : games.values()) {
+            list.add(toGameData(row));
+        }
+        return list;
+    }
+
+    @Override
+    public Collection<GameSummary> listSummaries(int afterGameID, int limit, String status) {
+        List<GameSummary> page = new ArrayList<>();
+        for (Row row : games.tailMap(afterGameID, false).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            // logs written before statuses were stored have none, which means NORMAL
+            String rowStatus = row.status() == null ? "NORMAL" : row.status();
+            if (status == null || status.equals(rowStatus)) {
+                page.add(new GameSummary(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(),
+                        rowStatus));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void replace(GameData data) throws SQLException {
+        Row next = toRow(data.gameID(), data, data.version() + 1);
+
+        StorageLog.record(log, () -> putEntry(next), () -> {
+            Row current = games.get(data.gameID());
+            if (current == null || current.version() != data.version() || !games.replace(data.gameID(), current, next)) {
+                throw new VersionConflictException("game " + data.gameID() + " is not at version " + data.version());
+            }
+        });
+    }
+
+    void apply(StorageLog.Entry entry) {
+        switch (entry.op()) {
+            case "put" -> {
+                Row row = serializer.fromJson(entry.row(), Row.class);
+                games.put(row.gameID(), row);
+                lastGameID.accumulateAndGet(row.gameID(), Math::max);
+            }
+            case "sequence" -> lastGameID.accumulateAndGet(Integer.parseInt(entry.key()), Math::max);
+            case "delete" -> games.remove(Integer.parseInt(entry.key()));
+            case "clear" -> games.clear();
+            default -> throw new IllegalStateException("unknown log operation: " + entry.op());
+        }
+    }
+
+    void snapshot(Consumer<StorageLog.Entry> sink) {
+        // keep the ID sequence across restarts even if the newest games were deleted
+        sink.accept(new StorageLog.Entry(TABLE, "sequence", String.valueOf(lastGameID.get()), null));
+        for (Row row : games.values()) {
+            sink.accept(putEntry(row));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dataaccess;
+
+import com.google.gson.Gson;
+import model.UserData;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class MemoryUserDOA implements InterfaceDOA<UserData> {
+    static final String TABLE = "users";
+
+    private final Map<String, UserData> users = new ConcurrentHashMap<>();
+    private final StorageLog log;
+    private final Gson serializer = new Gson();
+
+    public MemoryUserDOA(StorageLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public void create(UserData user) throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "put", user.username(), serializer.toJsonTree(user)),
+                () -> {
+                    if (users.putIfAbsent(user.username(), user) != null) {
+                        throw new SQLException("duplicate username");
+                    }
+                });
+    }
+
+    @Override
+    public UserData get(String username) {
+        if (username == null) {
+            return null;
+        }
+        return users.get(username);
+    }
+
+    @Override
+    public void delete(UserData user) throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "delete", user.username(), null),
+                () -> users.remove(user.username()));
+    }
+
+    @Override
+    public void clear() throws SQLException {
+        StorageLog.record(log, () -> new StorageLog.Entry(TABLE, "clear", null, null), users::clear);
+    }
+
+    @Override
+    public Collection<UserData> list() {
+        return new HashSet<>(users.values());
+    }
+
+    @Override
+    public void replace(UserData data) {
+
+    }
+
+    void apply(StorageLog.Entry entry) {
+        switch (entry.op()) {
+            case "put" -> users.put(entry.key(), serializer.fromJson(entry.row(), UserData.class));
+            case "delete" -> users.remove(entry.key());
+            case "clear" -> users.clear();
+            default -> throw new IllegalStateException("unknown log operation: " + entry.op());
+        }
+    }
+
+    void snapshot(Consumer<StorageLog.Entry> sink) {
+        for (UserData user : users.values()) {
+            sink.accept(new StorageLog.Entry(TABLE, "put", user.username(), serializer.toJsonTree(user)));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dataaccess;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements sent to the database, per thread and in total. It is kept apart
+ * from {@link DatabaseManager}, whose settings are loaded from db.properties, so that
+ * the counts can be read on the memory and file backends, which never load them.
+ */
+public final class RoundTrips {
+    // statements sent to the database by the current thread since the last reset
+    private static final ThreadLocal<int[]> current = ThreadLocal.withInitial(() -> new int[1]);
+    // statements sent by every thread since startup
+    private static final AtomicLong statements = new AtomicLong();
+
+    private RoundTrips() {
+    }
+
+    /**
+     * Starts counting the statements this thread sends to the database from zero.
+     */
+    public static void reset() {
+        current.get()[0] = 0;
+    }
+
+    /**
+     * @return the statements this thread has sent to the database since {@link #reset()}
+     */
+    public static int count() {
+        return current.get()[0];
+    }
+
+    /**
+     * @return the statements all threads have sent to the database since startup
+     */
+    public static long total() {
+        return statements.get();
+    }
+
+    static void record() {
+        current.get()[0]++;
+        statements.incrementAndGet();
+    }
+}
@@ -0,0 +1,107 @@
+package dataaccess;
+
+import config.ServerConfig;
+import model.AuthData;
+import model.UserData;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * The set of DAOs the services run against, picked once at startup by the "storage"
+ * setting:
+ * <ul>
+ *     <li>mysql - the MySQL database described by db.properties (default)</li>
+ *     <li>memory - in-process maps, nothing survives a restart</li>
+ *     <li>file - in-process maps backed by an append-only log at storage.file.path</li>
+ * </ul>
+ */
+public class Storage {
+    private final String backend;
+    private final InterfaceDOA<AuthData> authDOA;
+    private final InterfaceDOA<UserData> userDOA;
+    private final InterfaceGameDOA gameDOA;
+    private final StorageLog log;
+
+    private Storage(String backend, InterfaceDOA<AuthData> authDOA, InterfaceDOA<UserData> userDOA,
+                    InterfaceGameDOA gameDOA, StorageLog log) {
+        this.backend = backend;
+        this.authDOA = authDOA;
+        this.userDOA = userDOA;
+        this.gameDOA = gameDOA;
+        this.log = log;
+    }
+
+    private static class Holder {
+        private static final Storage INSTANCE = create(ServerConfig.getString("storage", "mysql"));
+    }
+
+    /**
+     * @return the storage selected by configuration, shared by every service in the process
+     */
+    public static Storage get() {
+        return Holder.INSTANCE;
+    }
+
+    public static Storage create(String backend) {
+        switch (backend) {
+            case "mysql":
+                return new Storage(backend, new AuthDOA(), new UserDOA(), new GameDOA(), null);
+            case "memory":
+                MemoryAuthDOA memoryAuth = new MemoryAuthDOA(null);
+                return new Storage(backend, memoryAuth, new MemoryUserDOA(null),
+                        new MemoryGameDOA(null, memoryAuth), null);
+            case "file":
+                StorageLog log = new StorageLog(Path.of(ServerConfig.getString("storage.file.path", "data/chess.log")),
+                        ServerConfig.getBoolean("storage.file.sync", false));
+                MemoryAuthDOA fileAuth = new MemoryAuthDOA(log);
+                return new Storage(backend, fileAuth, new MemoryUserDOA(log),
+                        new MemoryGameDOA(log, fileAuth), log);
+            default:
+                throw new IllegalArgumentException("unknown storage backend: " + backend);
+        }
+    }
+
+    /**
+     * Prepares the backend for use: creates the MySQL schema, or replays and compacts
+     * the log for the file backend.
+     */
+    public void initialize() throws SQLException {
+        if (backend.equals("mysql")) {
+            DatabaseManager.createSchema();
+        } else if (log != null) {
+            MemoryAuthDOA memoryAuth = (MemoryAuthDOA) authDOA;
+            MemoryUserDOA memoryUser = (MemoryUserDOA) userDOA;
+            MemoryGameDOA memoryGame = (MemoryGameDOA) gameDOA;
+
+            log.open(entry -> {
+                switch (entry.table()) {
+                    case MemoryAuthDOA.TABLE -> memoryAuth.apply(entry);
+                    case MemoryUserDOA.TABLE -> memoryUser.apply(entry);
+                    case MemoryGameDOA.TABLE -> memoryGame.apply(entry);
+                    default -> throw new IllegalStateException("unknown table in log: " + entry.table());
+                }
+            }, sink -> {
+                memoryAuth.snapshot(sink);
+                memoryUser.snapshot(sink);
+                memoryGame.snapshot(sink);
+            });
+        }
+    }
+
+    public String backend() {
+        return backend;
+    }
+
+    public InterfaceDOA<AuthData> authDOA() {
+        return authDOA;
+    }
+
+    public InterfaceDOA<UserData> userDOA() {
+        return userDOA;
+    }
+
+    public InterfaceGameDOA gameDOA() {
+        return gameDOA;
+    }
+}
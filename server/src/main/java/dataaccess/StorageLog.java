@@ -0,0 +1,136 @@
+package dataaccess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Append-only log behind the file storage backend. Each line is one JSON {@link Entry}.
+ * On startup the log is replayed into the in-memory DAOs and then rewritten as a
+ * snapshot of the current rows, so it only grows by the writes of a single run.
+ * <p>
+ * Writes are applied and appended under one lock so the log order always matches the
+ * order the DAOs saw.
+ */
+public class StorageLog {
+    public record Entry(String table, String op, String key, JsonElement row) {}
+
+    public interface Mutation {
+        void apply() throws SQLException;
+    }
+
+    private final Path path;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Gson serializer = new Gson();
+    private FileChannel channel;
+
+    public StorageLog(Path path, boolean sync) {
+        this.path = path;
+        this.sync = sync;
+    }
+
+    /**
+     * Applies a mutation to an in-memory DAO and, if a log is given, records it.
+     * The entry is only built and appended when the mutation succeeds.
+     */
+    public static void record(StorageLog log, Supplier<Entry> entry, Mutation mutation) throws SQLException {
+        if (log == null) {
+            mutation.apply();
+            return;
+        }
+        log.write(entry, mutation);
+    }
+
+    /**
+     * Replays the existing log, then compacts it to the snapshot and opens it for appends.
+     *
+     * @param replay   receives every entry of the existing log, oldest first
+     * @param snapshot writes one entry per live row to the given sink
+     */
+    public void open(Consumer<Entry> replay, Consumer<Consumer<Entry>> snapshot) throws SQLException {
+        lock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+
+            if (Files.exists(path)) {
+                List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+                for (int i = 0; i < lines.size(); i++) {
+                    Entry entry;
+                    try {
+                        entry = serializer.fromJson(lines.get(i), Entry.class);
+                    } catch (JsonParseException ex) {
+                        if (i == lines.size() - 1) {
+                            // torn final write from a crash; everything before it is intact
+                            break;
+                        }
+                        throw new SQLException("corrupt storage log at line " + (i + 1), ex);
+                    }
+                    if (entry != null) {
+                        replay.accept(entry);
+                    }
+                }
+            }
+
+            Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                snapshot.accept(entry -> {
+                    try {
+                        writer.write(serializer.toJson(entry));
+                        writer.newLine();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException | UncheckedIOException ex) {
+            throw new SQLException("failed to open storage log " + path, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(Supplier<Entry> entry, Mutation mutation) throws SQLException {
+        lock.lock();
+        try {
+            if (channel == null) {
+                throw new SQLException("storage log is not open");
+            }
+            mutation.apply();
+
+            byte[] line = (serializer.toJson(entry.get()) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new SQLException("failed to append to storage log " + path, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package dataaccess;
 
 import model.UserData;
-import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -11,19 +12,18 @@ import java.util.HashSet;
 import static dataaccess.DatabaseManager.*;
 
 public class UserDOA implements InterfaceDOA<UserData> {
+    private static final Logger log = LoggerFactory.getLogger(UserDOA.class);
+
     @Override
     public void create(UserData user) throws SQLException {
-        String password = BCrypt.hashpw(user.password(), BCrypt.gensalt());
-
-        executeUpdate("INSERT INTO users VALUES('" +
-                user.username() + "','" + password + "','" + user.email() + "');");
+        executeUpdate("INSERT INTO users VALUES(?, ?, ?);", user.username(), user.password(), user.email());
     }
 
     @Override
     public UserData get(String username) throws SQLException {
         ArrayList<ArrayList<String>> result = executeQuery("SELECT username, password, email FROM users WHERE username='" + username + "';");
         if(result.isEmpty()) {
-            System.out.print("NULL RESULT");
+            log.debug("no user username={}", username);
             return null;
         }
         return new UserData(result.get(0).get(0), result.get(0).get(1), result.get(0).get(2));
@@ -0,0 +1,13 @@
+package dataaccess;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when a replace is rejected because the stored row no longer has the version
+ * the caller read, i.e. someone else updated (or removed) it in the meantime.
+ */
+public class VersionConflictException extends SQLException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,180 @@
+package events;
+
+import com.google.gson.JsonObject;
+import config.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A small broker for running several server nodes on one machine. Each node connects with
+ * a {@link SocketGameEventBus}. The broker forwards every published event, as the line it
+ * arrived in, to the other nodes subscribed to its game. It listens on the loopback
+ * address only, so it is meant for testing and development rather than production.
+ * <pre>
+ *     java -cp server.jar events.EventBroker 7070
+ *     java -Dchess.events.bus=socket -Dchess.server.port=8080 -jar server.jar
+ *     java -Dchess.events.bus=socket -Dchess.server.port=8081 -jar server.jar
+ * </pre>
+ */
+public class EventBroker implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EventBroker.class);
+
+    private final ServerSocket listener;
+    private final Map<Integer, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param port the port to listen on, or 0 for any free port
+     */
+    public EventBroker(int port) throws IOException {
+        listener = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("event-broker").start(this::accept);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ServerConfig.getInt("events.port", 7070);
+        EventBroker broker = new EventBroker(port);
+        log.info("event broker listening on port {}", broker.port());
+        Thread.currentThread().join();
+    }
+
+    public int port() {
+        return listener.getLocalPort();
+    }
+
+    /**
+     * @return the nodes connected to the broker
+     */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        listener.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!listener.isClosed()) {
+            try {
+                Socket socket = listener.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+                Thread.ofVirtual().name("event-broker-node").start(() -> serve(connection));
+            } catch (IOException ex) {
+                if (!listener.isClosed()) {
+                    log.warn("accepting a node failed", ex);
+                }
+            }
+        }
+    }
+
+    private void serve(Connection connection) {
+        try {
+            for (String line = connection.reader.readLine(); line != null; line = connection.reader.readLine()) {
+                String op;
+                int gameID;
+                try {
+                    JsonObject message = EventCodec.parse(line);
+                    op = message.get("op").getAsString();
+                    gameID = message.get("gameID").getAsInt();
+                } catch (RuntimeException ex) {
+                    log.warn("dropped a line without an op and gameID: {}", line);
+                    continue;
+                }
+
+                switch (op) {
+                    case "subscribe" -> subscribe(gameID, connection);
+                    case "unsubscribe" -> unsubscribe(gameID, connection);
+                    case "publish" -> forward(gameID, line, connection);
+                    default -> log.warn("dropped a line with an unknown op: {}", line);
+                }
+            }
+        } catch (IOException ex) {
+            log.debug("node connection failed", ex);
+        } finally {
+            connections.remove(connection);
+            for (Integer gameID : subscribers.keySet()) {
+                unsubscribe(gameID, connection);
+            }
+            connection.close();
+        }
+    }
+
+    private void forward(int gameID, String line, Connection publisher) {
+        for (Connection connection : subscribers.getOrDefault(gameID, Set.of())) {
+            if (connection != publisher) {
+                connection.send(line);
+            }
+        }
+    }
+
+    private void subscribe(int gameID, Connection connection) {
+        subscribers.compute(gameID, (id, nodes) -> {
+            Set<Connection> subscribed = nodes == null ? ConcurrentHashMap.newKeySet() : nodes;
+            subscribed.add(connection);
+            return subscribed;
+        });
+    }
+
+    private void unsubscribe(int gameID, Connection connection) {
+        subscribers.computeIfPresent(gameID, (id, nodes) -> {
+            nodes.remove(connection);
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+
+    /**
+     * One node's socket. Every other node's thread may forward to it, so lines are queued
+     * for the connection's own writer thread; a node too slow to keep up is disconnected.
+     */
+    private static final class Connection {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final LineWriter writer;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new LineWriter("event-broker-writer",
+                    new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)),
+                    ServerConfig.getInt("events.sendQueue", 4096), ex -> {
+                        log.debug("forwarding to a node failed", ex);
+                        close();
+                    });
+        }
+
+        private void send(String line) {
+            if (!writer.send(line)) {
+                log.warn("disconnecting a node that is not reading its events");
+                close();
+            }
+        }
+
+        private void close() {
+            writer.close();
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                log.debug("closing a node connection failed", ex);
+            }
+        }
+    }
+}
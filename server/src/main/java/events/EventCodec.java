@@ -0,0 +1,72 @@
+package events;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+
+/**
+ * The line protocol between {@link SocketGameEventBus} and {@link EventBroker}: one JSON
+ * object per line, with an "op" of subscribe, unsubscribe or publish and the gameID it is
+ * for. A publish line also carries the event's type, excluded session and payload.
+ */
+final class EventCodec {
+    private static final Gson serializer = new Gson();
+
+    private EventCodec() {
+    }
+
+    static String subscribe(int gameID) {
+        return control("subscribe", gameID);
+    }
+
+    static String unsubscribe(int gameID) {
+        return control("unsubscribe", gameID);
+    }
+
+    static String publish(GameEvent event) {
+        JsonObject line = new JsonObject();
+        line.addProperty("op", "publish");
+        line.addProperty("gameID", event.gameID());
+        line.addProperty("type", event.type().name());
+        line.addProperty("exclude", event.excludeSession());
+        line.add("payload", serializer.toJsonTree(event.payload()));
+        return serializer.toJson(line);
+    }
+
+    /**
+     * @throws com.google.gson.JsonParseException if the line is not JSON
+     * @throws IllegalStateException if it is not an object
+     */
+    static JsonObject parse(String line) {
+        return JsonParser.parseString(line).getAsJsonObject();
+    }
+
+    /**
+     * @throws RuntimeException if the line is missing a field or has one of the wrong type
+     */
+    static GameEvent event(JsonObject line) {
+        GameEvent.Type type = GameEvent.Type.valueOf(line.get("type").getAsString());
+        JsonElement exclude = line.get("exclude");
+        JsonElement payload = line.get("payload");
+
+        Object decoded = switch (type) {
+            case NOTIFICATION -> serializer.fromJson(payload, NotificationMessage.class);
+            case MOVE -> serializer.fromJson(payload, MoveMessage.class);
+            case LOAD_GAME -> serializer.fromJson(payload, LoadGameMessage.class);
+            case STATUS -> payload.getAsString();
+        };
+        return new GameEvent(line.get("gameID").getAsInt(), type, decoded,
+                exclude == null || exclude.isJsonNull() ? null : exclude.getAsString());
+    }
+
+    private static String control(String op, int gameID) {
+        JsonObject line = new JsonObject();
+        line.addProperty("op", op);
+        line.addProperty("gameID", gameID);
+        return serializer.toJson(line);
+    }
+}
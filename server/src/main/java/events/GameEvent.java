@@ -0,0 +1,42 @@
+package events;
+
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+
+/**
+ * Something every node serving a game needs to hear about: a message for the game's
+ * sessions, or a change to its status.
+ *
+ * @param excludeSession the WebSocket session ID that must not receive a notification,
+ *                       usually the one whose command caused it, or null to send it to all
+ */
+public record GameEvent(int gameID, Type type, Object payload, String excludeSession) {
+
+    public enum Type {
+        /** a {@link NotificationMessage} for every session but {@code excludeSession} */
+        NOTIFICATION,
+        /** a {@link MoveMessage} for the sessions that apply moves themselves */
+        MOVE,
+        /** a {@link LoadGameMessage} for the sessions that take the whole game */
+        LOAD_GAME,
+        /** the game's new status, as a String */
+        STATUS
+    }
+
+    public static GameEvent notification(int gameID, NotificationMessage message, String excludeSession) {
+        return new GameEvent(gameID, Type.NOTIFICATION, message, excludeSession);
+    }
+
+    public static GameEvent move(int gameID, MoveMessage message) {
+        return new GameEvent(gameID, Type.MOVE, message, null);
+    }
+
+    public static GameEvent loadGame(int gameID, LoadGameMessage message) {
+        return new GameEvent(gameID, Type.LOAD_GAME, message, null);
+    }
+
+    public static GameEvent status(int gameID, String status) {
+        return new GameEvent(gameID, Type.STATUS, status, null);
+    }
+}
@@ -0,0 +1,68 @@
+package events;
+
+import config.ServerConfig;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Publish and subscribe for game events, keyed by gameID, so a game's players can be
+ * connected to different server nodes. Each node subscribes to the games it has sessions
+ * for and publishes what its commands produce instead of sending it to its sessions
+ * directly. The bus hands every event to each subscribed node, the publisher included,
+ * and the node sends it to its own sessions.
+ * <p>
+ * Picked once at startup by the "events.bus" setting:
+ * <ul>
+ *     <li>local - this process only, for a single node (default)</li>
+ *     <li>socket - through an {@link EventBroker} at events.host and events.port</li>
+ * </ul>
+ */
+public interface GameEventBus extends AutoCloseable {
+
+    static GameEventBus create(String bus) {
+        switch (bus) {
+            case "local":
+                return new LocalGameEventBus();
+            case "socket":
+                String host = ServerConfig.getString("events.host", "localhost");
+                int port = ServerConfig.getInt("events.port", 7070);
+                try {
+                    return new SocketGameEventBus(host, port);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("could not reach the event broker at " + host + ":" + port, ex);
+                }
+            default:
+                throw new IllegalArgumentException("unknown event bus: " + bus);
+        }
+    }
+
+    /**
+     * Hands the event to this node's subscriber for its game on the calling thread, then
+     * to every other subscribed node. Events from one publisher arrive in the order they
+     * were published.
+     */
+    void publish(GameEvent event);
+
+    /**
+     * Starts handing this game's events to the handler, with events from other nodes
+     * arriving on the bus's own thread.
+     */
+    default void subscribe(int gameID, Consumer<GameEvent> handler) {
+        subscribe(gameID, handler, Runnable::run);
+    }
+
+    /**
+     * Starts handing this game's events to the handler. Events from other nodes are handed
+     * over through {@code remoteEvents}, in the order they arrive, so they can be run where
+     * the subscriber runs the commands that publish its own. Subscribing to a game that
+     * already has a handler does nothing.
+     */
+    void subscribe(int gameID, Consumer<GameEvent> handler, Executor remoteEvents);
+
+    void unsubscribe(int gameID);
+
+    @Override
+    void close();
+}
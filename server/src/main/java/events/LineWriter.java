@@ -0,0 +1,77 @@
+package events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Writes lines to one socket from its own thread, so the threads that send them only
+ * queue them and never wait on the network. Lines are written in the order they were
+ * sent, and flushed each time the queue runs dry.
+ * <p>
+ * A peer that stops reading fills the queue; the line that finds it full is refused and
+ * the connection should be given up, since dropping lines would leave the peer with a
+ * game history that has holes in it.
+ */
+final class LineWriter {
+    private final BufferedWriter writer;
+    private final BlockingQueue<String> pending;
+    private final Consumer<IOException> onFailure;
+    private final Thread thread;
+    private volatile boolean failed;
+
+    /**
+     * @param capacity the most lines that may wait to be written
+     * @param onFailure called once, on the writer's thread, if a write fails
+     */
+    LineWriter(String name, BufferedWriter writer, int capacity, Consumer<IOException> onFailure) {
+        this.writer = writer;
+        this.pending = new LinkedBlockingQueue<>(capacity);
+        this.onFailure = onFailure;
+        this.thread = Thread.ofVirtual().name(name).start(this::run);
+    }
+
+    /**
+     * @return false if the queue is full or a write has already failed, and the
+     * connection should be closed
+     */
+    boolean send(String line) {
+        return !failed && pending.offer(line);
+    }
+
+    /**
+     * Stops the writer thread. Lines still queued are not written.
+     */
+    void close() {
+        thread.interrupt();
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>();
+        while (!failed) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            pending.drainTo(batch);
+
+            try {
+                for (String line : batch) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (IOException ex) {
+                failed = true;
+                pending.clear();
+                onFailure.accept(ex);
+            }
+            batch.clear();
+        }
+    }
+}
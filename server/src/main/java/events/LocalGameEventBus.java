@@ -0,0 +1,38 @@
+package events;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * The bus for a single node: an event goes straight to this process's handler for its
+ * game, if there is one.
+ */
+public class LocalGameEventBus implements GameEventBus {
+    private final Map<Integer, Consumer<GameEvent>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(GameEvent event) {
+        Consumer<GameEvent> handler = handlers.get(event.gameID());
+        if (handler != null) {
+            handler.accept(event);
+        }
+    }
+
+    // with no other nodes there are no remote events to hand over
+    @Override
+    public void subscribe(int gameID, Consumer<GameEvent> handler, Executor remoteEvents) {
+        handlers.putIfAbsent(gameID, handler);
+    }
+
+    @Override
+    public void unsubscribe(int gameID) {
+        handlers.remove(gameID);
+    }
+
+    @Override
+    public void close() {
+        handlers.clear();
+    }
+}
@@ -0,0 +1,131 @@
+package events;
+
+import config.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A node's connection to an {@link EventBroker}. Events go to this node's handler first,
+ * on the publishing thread, and are then queued for a writer thread to send to the broker,
+ * which forwards them to every other node subscribed to the game. Events from other nodes
+ * are read on one thread and handed to each game's handler through the executor it
+ * subscribed with, so they arrive in the order each node published them.
+ * <p>
+ * If the broker connection breaks, the bus logs it and carries on delivering this node's
+ * own events, so games with all their players on this node keep working.
+ */
+public class SocketGameEventBus implements GameEventBus {
+    private static final Logger log = LoggerFactory.getLogger(SocketGameEventBus.class);
+
+    private final Map<Integer, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Socket socket;
+    private final LineWriter writer;
+    private volatile boolean connected = true;
+
+    public SocketGameEventBus(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        writer = new LineWriter("event-bus-writer",
+                new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)),
+                ServerConfig.getInt("events.sendQueue", 4096), this::disconnected);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8));
+
+        Thread.ofVirtual().name("event-bus-reader").start(() -> read(reader));
+    }
+
+    @Override
+    public void publish(GameEvent event) {
+        Subscription subscription = subscriptions.get(event.gameID());
+        if (subscription != null) {
+            subscription.handler().accept(event);
+        }
+        send(EventCodec.publish(event));
+    }
+
+    @Override
+    public void subscribe(int gameID, Consumer<GameEvent> handler, Executor remoteEvents) {
+        if (subscriptions.putIfAbsent(gameID, new Subscription(handler, remoteEvents)) == null) {
+            send(EventCodec.subscribe(gameID));
+        }
+    }
+
+    @Override
+    public void unsubscribe(int gameID) {
+        if (subscriptions.remove(gameID) != null) {
+            send(EventCodec.unsubscribe(gameID));
+        }
+    }
+
+    @Override
+    public void close() {
+        connected = false;
+        subscriptions.clear();
+        closeSocket();
+    }
+
+    private void send(String line) {
+        if (!connected) {
+            return;
+        }
+
+        if (!writer.send(line)) {
+            disconnected(new IOException("the event broker is not reading; events.sendQueue is full"));
+            closeSocket();
+        }
+    }
+
+    private void read(BufferedReader reader) {
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                GameEvent event;
+                try {
+                    event = EventCodec.event(EventCodec.parse(line));
+                } catch (RuntimeException ex) {
+                    // a bad line must not stop the reader, or every later event would be lost
+                    log.warn("dropped an event the broker sent that could not be read: {}", line, ex);
+                    continue;
+                }
+
+                Subscription subscription = subscriptions.get(event.gameID());
+                if (subscription != null) {
+                    subscription.remoteEvents().execute(() -> subscription.handler().accept(event));
+                }
+            }
+            disconnected(null);
+        } catch (IOException ex) {
+            disconnected(ex);
+        }
+    }
+
+    private void closeSocket() {
+        writer.close();
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            log.debug("closing the event broker connection failed", ex);
+        }
+    }
+
+    private void disconnected(IOException cause) {
+        if (connected) {
+            connected = false;
+            log.error("lost the event broker connection; only this node's sessions will see its games", cause);
+        }
+    }
+
+    private record Subscription(Consumer<GameEvent> handler, Executor remoteEvents) {
+    }
+}
@@ -0,0 +1,232 @@
+package server;
+
+import com.google.gson.Gson;
+import config.ServerConfig;
+import io.javalin.websocket.WsContext;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import tracing.SerializationEvent;
+import tracing.Span;
+import tracing.Tracer;
+import websocket.BinaryCodec;
+import websocket.messages.LoadGameMessage;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Sends server messages to the sessions of a game. Each message is serialized at most
+ * once per wire format, JSON text or {@link BinaryCodec} frames, and the same payload is
+ * queued for every recipient using that format, so a game with many observers pays for
+ * one encode and never waits on a slow socket.
+ * <p>
+ * Every session has its own bounded {@link OutboundQueue}. A session that falls so far
+ * behind that its queue overflows is closed and reported through {@code onFailure}.
+ */
+public class Broadcaster {
+    // close code for a client that cannot keep up ("Try Again Later")
+    private static final int SLOW_CONSUMER = 1013;
+
+    private final Gson serializer = new Gson();
+    private final Map<WsContext, OutboundQueue> queues = new ConcurrentHashMap<>();
+    private final int queueCapacity;
+    private final Predicate<WsContext> binaryClients;
+    private final Predicate<WsContext> compressedClients;
+    // fan-out time of one broadcast, by message type
+    private final Function<String, LatencyHistogram> fanoutLatency;
+    private final WireStats wireStats = new WireStats(ServerConfig.getInt("ws.compressionSample", 16));
+
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+
+    /**
+     * @param queueCapacity the most messages a session may have waiting to be written
+     * @param binaryClients which sessions negotiated binary frames instead of JSON
+     * @param compressedClients which sessions negotiated permessage-deflate
+     * @param fanoutLatency the histogram each broadcast's encode and dispatch time is
+     *                      recorded in, looked up by the message's class name
+     */
+    public Broadcaster(int queueCapacity, Predicate<WsContext> binaryClients, Predicate<WsContext> compressedClients,
+                       Function<String, LatencyHistogram> fanoutLatency) {
+        this.queueCapacity = queueCapacity;
+        this.binaryClients = binaryClients;
+        this.compressedClients = compressedClients;
+        this.fanoutLatency = fanoutLatency;
+    }
+
+    /**
+     * Sends a message to every open session that {@code recipients} accepts. The message
+     * is only serialized if at least one session is accepted.
+     */
+    public void broadcastTo(Collection<WsContext> sessions, Object message, Predicate<WsContext> recipients,
+                            Consumer<WsContext> onFailure) {
+        long start = System.nanoTime();
+        String json = null;
+        byte[] binary = null;
+        int jsonSize = 0;
+        int binarySize = 0;
+        boolean loadGame = isLoadGame(message);
+        int delivered = 0;
+
+        for (WsContext client : sessions) {
+            if (!recipients.test(client)) {
+                continue;
+            }
+
+            if (binaryClients.test(client)) {
+                if (binary == null) {
+                    binary = (byte[]) encode(message, true);
+                    binarySize = wireStats.encoded(binary);
+                }
+                sendPayload(client, binary, binarySize, loadGame, onFailure);
+            } else {
+                if (json == null) {
+                    json = (String) encode(message, false);
+                    jsonSize = wireStats.encoded(json);
+                }
+                sendPayload(client, json, jsonSize, loadGame, onFailure);
+            }
+            delivered++;
+        }
+
+        broadcasts.incrementAndGet();
+        deliveries.addAndGet(delivered);
+        fanoutLatency.apply(message.getClass().getSimpleName()).record(System.nanoTime() - start);
+    }
+
+    public void send(WsContext client, Object message, Consumer<WsContext> onFailure) {
+        Object payload = encode(message, binaryClients.test(client));
+        sendPayload(client, payload, wireStats.encoded(payload), isLoadGame(message), onFailure);
+    }
+
+    /**
+     * @return the message as a byte[] frame if binary, otherwise as a JSON string
+     */
+    private Object encode(Object message, boolean binary) {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+
+        Object payload;
+        try (Span span = Tracer.span("encode").tag("format", binary ? "binary" : "json")) {
+            payload = binary ? BinaryCodec.encodeMessage(message) : serializer.toJson(message);
+        }
+
+        if (event.shouldCommit()) {
+            event.type = message.getClass().getSimpleName();
+            event.format = binary ? "binary" : "json";
+            event.direction = "encode";
+            event.payloadSize = payload instanceof byte[] bytes ? bytes.length : ((String) payload).length();
+            event.commit();
+        }
+        return payload;
+    }
+
+    /**
+     * Forgets a session's outbound queue. Call once the session has closed.
+     */
+    public void release(WsContext client) {
+        queues.remove(client);
+    }
+
+    private void sendPayload(WsContext client, Object payload, int size, boolean loadGame,
+                             Consumer<WsContext> onFailure) {
+        if (!client.session.isOpen()) {
+            release(client);
+            onFailure.accept(client);
+            return;
+        }
+
+        OutboundQueue queue = queues.computeIfAbsent(client, key -> new OutboundQueue(
+                (frame, callback) -> write(key, frame, callback), queueCapacity, compactions::addAndGet));
+
+        boolean queued = queue.offer(payload, loadGame, () -> {
+            failures.incrementAndGet();
+            release(client);
+            onFailure.accept(client);
+        });
+
+        if (queued) {
+            wireStats.sent(payload, size, compressedClients.test(client));
+        } else {
+            overflows.incrementAndGet();
+            release(client);
+            onFailure.accept(client);
+            client.closeSession(SLOW_CONSUMER, "Client too slow");
+        }
+    }
+
+    private void write(WsContext client, Object frame, WriteCallback callback) {
+        if (frame instanceof byte[] bytes) {
+            // wrapped per send: the array is shared by every recipient but a buffer's position is not
+            client.session.getRemote().sendBytes(ByteBuffer.wrap(bytes), callback);
+        } else {
+            client.session.getRemote().sendString((String) frame, callback);
+        }
+    }
+
+    private boolean isLoadGame(Object message) {
+        return message instanceof LoadGameMessage;
+    }
+
+    /**
+     * @return raw and estimated compressed byte counts for everything queued to sessions
+     */
+    public WireStats wireStats() {
+        return wireStats;
+    }
+
+    public long broadcastCount() {
+        return broadcasts.get();
+    }
+
+    /**
+     * @return the total number of session sends made by broadcasts
+     */
+    public long deliveryCount() {
+        return deliveries.get();
+    }
+
+    public long failureCount() {
+        return failures.get();
+    }
+
+    /**
+     * @return the number of sessions dropped because their outbound queue overflowed
+     */
+    public long overflowCount() {
+        return overflows.get();
+    }
+
+    /**
+     * @return the number of queued board updates discarded because a newer one superseded them
+     */
+    public long compactedCount() {
+        return compactions.get();
+    }
+
+    /**
+     * @return the number of sessions with an outbound queue
+     */
+    public int queueCount() {
+        return queues.size();
+    }
+
+    /**
+     * @return the number of messages waiting in all sessions' outbound queues
+     */
+    public int queuedMessageCount() {
+        int queued = 0;
+        for (OutboundQueue queue : queues.values()) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+}
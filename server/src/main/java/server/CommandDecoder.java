@@ -0,0 +1,130 @@
+package server;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Decodes a JSON command frame in one pass. The fields are read straight off the token
+ * stream, the move included, and the command is built once as the right type: a
+ * {@link MakeMoveCommand} for MAKE_MOVE, otherwise a {@link UserGameCommand}. Fields may
+ * arrive in any order; unknown fields are skipped.
+ */
+public class CommandDecoder {
+
+    private CommandDecoder() {
+    }
+
+    /**
+     * @return the command, with null for any field that was missing or unrecognised
+     * @throws JsonParseException if the frame is not a JSON object
+     */
+    public static UserGameCommand decode(String frame) {
+        try (JsonReader reader = new JsonReader(new StringReader(frame))) {
+            UserGameCommand.CommandType commandType = null;
+            String authToken = null;
+            Integer gameID = null;
+            ChessMove move = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "commandType" -> commandType = readEnum(reader, UserGameCommand.CommandType.class);
+                    case "authToken" -> authToken = readString(reader);
+                    case "gameID" -> gameID = readInteger(reader);
+                    case "move" -> move = readMove(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (commandType == UserGameCommand.CommandType.MAKE_MOVE) {
+                return new MakeMoveCommand(authToken, gameID, move);
+            }
+            return new UserGameCommand(commandType, authToken, gameID);
+        } catch (IOException | IllegalStateException | NumberFormatException ex) {
+            throw new JsonParseException("malformed command", ex);
+        }
+    }
+
+    private static ChessMove readMove(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+
+        ChessPosition start = null;
+        ChessPosition end = null;
+        ChessPiece.PieceType promotion = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "chessStartPosition" -> start = readPosition(reader);
+                case "chessEndPosition" -> end = readPosition(reader);
+                case "chessPromotionPiece" -> promotion = readEnum(reader, ChessPiece.PieceType.class);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return start == null || end == null ? null : new ChessMove(start, end, promotion);
+    }
+
+    private static ChessPosition readPosition(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+
+        int row = 0;
+        int col = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "row" -> row = reader.nextInt();
+                case "col" -> col = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ChessPosition(row, col);
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader reader, Class<E> type) throws IOException {
+        String name = readString(reader);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException ex) {
+            // same as Gson, which maps an unknown constant to null
+            return null;
+        }
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        return skipNull(reader) ? null : reader.nextString();
+    }
+
+    private static Integer readInteger(JsonReader reader) throws IOException {
+        return skipNull(reader) ? null : reader.nextInt();
+    }
+
+    private static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Gives every active game its own mailbox. Commands for one game run one at a time in
+ * the order they were submitted, while different games run in parallel on the shared
+ * executor. There is no lock across games: a mailbox is created and retired inside
+ * the map's per-key compute, and is removed as soon as it drains.
+ */
+public class GameActors {
+    private static final Logger log = LoggerFactory.getLogger(GameActors.class);
+
+    private final Executor executor;
+    private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public GameActors(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void submit(Integer gameID, Runnable command) {
+        mailboxes.compute(gameID, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox(id);
+            }
+            mailbox.enqueue(command);
+            return mailbox;
+        });
+    }
+
+    /**
+     * @return the number of games with queued or running commands
+     */
+    public int activeCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * @return the number of commands waiting to run for a game
+     */
+    public int pendingCount(Integer gameID) {
+        Mailbox mailbox = mailboxes.get(gameID);
+        return mailbox == null ? 0 : mailbox.queue.size();
+    }
+
+    private class Mailbox implements Runnable {
+        private final Integer gameID;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        // only read and written inside mailboxes.compute for this gameID
+        private boolean scheduled;
+
+        private Mailbox(Integer gameID) {
+            this.gameID = gameID;
+        }
+
+        private void enqueue(Runnable command) {
+            queue.add(command);
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable command = queue.poll();
+                if (command == null) {
+                    if (retire()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                try {
+                    command.run();
+                } catch (RuntimeException ex) {
+                    log.error("command failed on game {}", gameID, ex);
+                } catch (Error error) {
+                    log.error("command failed on game {}", gameID, error);
+                    // this task ends with the error, so the game's later commands go on in a fresh one
+                    executor.execute(this);
+                    throw error;
+                }
+            }
+        }
+
+        /**
+         * Removes this mailbox if nothing was submitted since the queue was found empty.
+         */
+        private boolean retire() {
+            boolean[] retired = {false};
+            mailboxes.compute(gameID, (id, mailbox) -> {
+                if (!queue.isEmpty()) {
+                    return mailbox;
+                }
+                scheduled = false;
+                retired[0] = true;
+                return null;
+            });
+            return retired[0];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Latency histograms and counters, rendered in the Prometheus text exposition format.
+ * Each histogram is exported as a summary: p50, p90, p99 and p99.9 plus the sum and count.
+ * Counters and gauges are read from their owners each time the endpoint is scraped.
+ */
+public class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private final List<Sampled> sampled = new ArrayList<>();
+
+    /**
+     * @return the histogram for this family and label, created the first time it is asked for
+     */
+    public LatencyHistogram latency(String name, String help, String label, String value) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, label));
+        return family.histograms.computeIfAbsent(value, key -> new LatencyHistogram());
+    }
+
+    public void counter(String name, String help, DoubleSupplier value) {
+        synchronized (sampled) {
+            sampled.add(new Sampled(name, help, "counter", value));
+        }
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value) {
+        synchronized (sampled) {
+            sampled.add(new Sampled(name, help, "gauge", value));
+        }
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            header(out, name, family.help, "summary");
+
+            for (Map.Entry<String, LatencyHistogram> series : family.histograms.entrySet()) {
+                String labels = family.label + "=\"" + escape(series.getKey()) + "\"";
+                LatencyHistogram histogram = series.getValue();
+
+                for (double quantile : QUANTILES) {
+                    out.append(name).append('{').append(labels).append(",quantile=\"").append(quantile)
+                            .append("\"} ").append(seconds(histogram.valueAtQuantile(quantile))).append('\n');
+                }
+                out.append(name).append("_sum{").append(labels).append("} ")
+                        .append(seconds(histogram.sumNanos())).append('\n');
+                out.append(name).append("_count{").append(labels).append("} ")
+                        .append(histogram.count()).append('\n');
+            }
+        }
+
+        synchronized (sampled) {
+            for (Sampled metric : sampled) {
+                header(out, metric.name, metric.help, metric.type);
+                out.append(metric.name).append(' ').append(number(metric.value.getAsDouble())).append('\n');
+            }
+        }
+
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return number(nanos / 1e9);
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.9g", value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private record Family(String help, String label, Map<String, LatencyHistogram> histograms) {
+        Family(String help, String label) {
+            this(help, label, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    private record Sampled(String name, String help, String type, DoubleSupplier value) {
+    }
+}
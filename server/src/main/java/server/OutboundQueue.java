@@ -0,0 +1,197 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.util.ArrayDeque;
+import java.util.function.LongConsumer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The outbound side of one WebSocket session. At most one write is in flight at a time;
+ * anything sent while it is pending waits in a bounded queue and goes out, in order, as
+ * each write completes. Callers never wait on the socket.
+ * <p>
+ * When the queue is full, queued board updates that a newer one supersedes are discarded
+ * first, since a client only needs the latest LOAD_GAME; the newest is always kept. If
+ * that frees no room the session is too slow to keep up, and the queue closes itself so
+ * the caller can drop it.
+ */
+class OutboundQueue {
+    /**
+     * Hands one payload, a String for a text frame or a byte[] for a binary frame, to the
+     * socket, reporting completion through the callback.
+     */
+    interface Transport {
+        void write(Object payload, WriteCallback callback);
+    }
+
+    private record Outbound(Object payload, boolean loadGame, Runnable onFailure) {
+    }
+
+    private final Transport transport;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Outbound> pending = new ArrayDeque<>();
+    private boolean writing = false;
+    private boolean closed = false;
+    private long compacted = 0;
+    private final LongConsumer onCompacted;
+
+    OutboundQueue(Transport transport, int capacity) {
+        this(transport, capacity, dropped -> { });
+    }
+
+    /**
+     * @param onCompacted told how many board updates each compaction discarded, so the
+     *                    total outlives the session
+     */
+    OutboundQueue(Transport transport, int capacity, LongConsumer onCompacted) {
+        this.transport = transport;
+        this.capacity = capacity;
+        this.onCompacted = onCompacted;
+    }
+
+    /**
+     * Queues a payload behind any writes already pending.
+     *
+     * @param loadGame whether the payload is a board update that a later one supersedes
+     * @param onFailure run if the socket later fails to take this payload
+     * @return false if the session overflowed or had already failed, and should be dropped
+     */
+    boolean offer(Object payload, boolean loadGame, Runnable onFailure) {
+        Outbound next;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (pending.size() >= capacity) {
+                compact(loadGame);
+
+                if (pending.size() >= capacity) {
+                    close();
+                    return false;
+                }
+            }
+
+            pending.add(new Outbound(payload, loadGame, onFailure));
+            if (writing) {
+                return true;
+            }
+            writing = true;
+            next = pending.poll();
+        } finally {
+            lock.unlock();
+        }
+
+        write(next);
+        return true;
+    }
+
+    /**
+     * Discards queued board updates that a later one supersedes: every one of them if the
+     * payload being queued is itself a board, otherwise all but the newest.
+     */
+    private void compact(boolean supersededByIncoming) {
+        Outbound newest = null;
+        if (!supersededByIncoming) {
+            for (var it = pending.descendingIterator(); it.hasNext() && newest == null; ) {
+                Outbound outbound = it.next();
+                if (outbound.loadGame()) {
+                    newest = outbound;
+                }
+            }
+        }
+
+        Outbound kept = newest;
+        int before = pending.size();
+        pending.removeIf(outbound -> outbound.loadGame() && outbound != kept);
+        int dropped = before - pending.size();
+        if (dropped > 0) {
+            compacted += dropped;
+            onCompacted.accept(dropped);
+        }
+    }
+
+    private void write(Outbound outbound) {
+        try {
+            transport.write(outbound.payload(), new WriteCallback() {
+                @Override
+                public void writeFailed(Throwable cause) {
+                    fail(outbound);
+                }
+
+                @Override
+                public void writeSuccess() {
+                    writeNext();
+                }
+            });
+        } catch (RuntimeException ex) {
+            fail(outbound);
+        }
+    }
+
+    private void writeNext() {
+        Outbound next;
+
+        lock.lock();
+        try {
+            next = closed ? null : pending.poll();
+            if (next == null) {
+                writing = false;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        write(next);
+    }
+
+    private void fail(Outbound outbound) {
+        lock.lock();
+        try {
+            close();
+        } finally {
+            lock.unlock();
+        }
+        outbound.onFailure().run();
+    }
+
+    private void close() {
+        closed = true;
+        writing = false;
+        pending.clear();
+    }
+
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how many queued board updates were discarded in favour of newer ones
+     */
+    long compactedCount() {
+        lock.lock();
+        try {
+            return compacted;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package server;
+
+import io.javalin.websocket.WsContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket per WebSocket session. Each session may send {@code burst} commands at
+ * once and then {@code perSecond} a second after that. A rate of zero turns limiting off.
+ */
+public class RateLimiter {
+    private final double perSecond;
+    private final double burst;
+    private final Map<WsContext, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public RateLimiter(double perSecond, double burst) {
+        this.perSecond = perSecond;
+        this.burst = Math.max(1, burst);
+    }
+
+    /**
+     * @return false if the session has run out of tokens and the command should be refused
+     */
+    public boolean tryAcquire(WsContext session) {
+        if (perSecond <= 0) {
+            return true;
+        }
+
+        boolean[] allowed = {false};
+        long now = System.nanoTime();
+        buckets.compute(session, (key, bucket) -> {
+            Bucket current = bucket == null ? new Bucket(burst, now) : bucket.refill(now, perSecond, burst);
+            allowed[0] = current.tokens() >= 1;
+            return allowed[0] ? new Bucket(current.tokens() - 1, now) : current;
+        });
+
+        if (!allowed[0]) {
+            rejected.incrementAndGet();
+        }
+        return allowed[0];
+    }
+
+    public void release(WsContext session) {
+        buckets.remove(session);
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the number of sessions with a bucket
+     */
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private record Bucket(double tokens, long updatedNanos) {
+        Bucket refill(long now, double perSecond, double burst) {
+            double earned = (now - updatedNanos) / 1e9 * perSecond;
+            return new Bucket(Math.min(burst, tokens + earned), now);
+        }
+    }
+}
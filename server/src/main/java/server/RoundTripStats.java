@@ -0,0 +1,39 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database round trips made while handling each WebSocket frame, as counted by
+ * {@link dataaccess.RoundTrips#count()}.
+ */
+public class RoundTripStats {
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(int frameRoundTrips) {
+        frames.incrementAndGet();
+        roundTrips.addAndGet(frameRoundTrips);
+        max.accumulateAndGet(frameRoundTrips, Math::max);
+    }
+
+    public long frameCount() {
+        return frames.get();
+    }
+
+    public long roundTripCount() {
+        return roundTrips.get();
+    }
+
+    /**
+     * @return the most round trips any single frame has needed
+     */
+    public long maxPerFrame() {
+        return max.get();
+    }
+
+    public double meanPerFrame() {
+        long count = frames.get();
+        return count == 0 ? 0 : (double) roundTrips.get() / count;
+    }
+}
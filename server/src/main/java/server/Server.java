@@ -2,57 +2,198 @@ package server;
 
 import chess.*;
 import com.google.gson.Gson;
-import dataaccess.GameDOA;
+import com.google.gson.JsonParseException;
+import config.ServerConfig;
+import dataaccess.AuthorizedGame;
+import dataaccess.RoundTrips;
+import dataaccess.Storage;
+import dataaccess.VersionConflictException;
+import events.GameEvent;
+import events.GameEventBus;
 import io.javalin.*;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
 import io.javalin.websocket.WsContext;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import requests.CreateGame;
 import requests.JoinGame;
+import requests.ListGames;
 import requests.Response;
 import services.AuthService;
 import services.GameService;
+import services.PasswordHasher;
 import services.UserService;
+import tracing.GameCommandEvent;
+import tracing.Span;
+import tracing.Tracer;
+import websocket.BinaryCodec;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
 import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-
-import static dataaccess.DatabaseManager.createDatabase;
-import static dataaccess.DatabaseManager.createTables;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class Server {
+    private static final Logger log = LoggerFactory.getLogger(Server.class);
+
+    // REST paths get their own latency series; anything else is counted under "other"
+    private static final Set<String> ROUTES = Set.of("/db", "/user", "/session", "/game", "/metrics", "/admin",
+            "/ready");
+    // paths that answer without storage, so they work while the schema is still being checked
+    private static final Set<String> PROBES = Set.of("/ready", "/metrics");
+    private static final int DEFAULT_ADMIN_GAMES = 100;
+
     private final Javalin javalin;
-    private AuthService authService = new AuthService();
-    private UserService userService = new UserService();
-    private GameService gameService = new GameService();
-    private Map<Integer, Set<WsContext>> gameSessions = new ConcurrentHashMap<>();
+    private final AuthService authService;
+    private final UserService userService;
+    private final GameService gameService;
+    private final SessionRegistry sessions = new SessionRegistry();
+    private final Metrics metrics = new Metrics();
     private Map<Integer, String> gameStatus = new ConcurrentHashMap<>();
+    // when each game with connected sessions last had a move stored, in epoch milliseconds
+    private final Map<Integer, Long> lastMoveAt = new ConcurrentHashMap<>();
+    private final Broadcaster broadcaster = new Broadcaster(ServerConfig.getInt("ws.sendQueue", 64),
+            sessions::prefersBinary, sessions::isCompressed, type -> metrics.latency("chess_ws_broadcast_seconds",
+                    "Time to encode a message and queue it to every recipient in a game.", "message", type));
+    private final RoundTripStats frameRoundTrips = new RoundTripStats();
+    private final RateLimiter rateLimiter = new RateLimiter(ServerConfig.getInt("ws.rateLimit", 20),
+            ServerConfig.getInt("ws.rateBurst", 40));
+    private final ExecutorService commandExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final GameActors gameActors = new GameActors(commandExecutor);
+    private final AtomicLong clientErrors = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong commandErrors = new AtomicLong();
+    // true once the schema is verified, false if that failed
+    private final CompletableFuture<Boolean> storageReady;
+    private final CompletableFuture<Void> warmedUp;
+    private final GameEventBus eventBus;
 
     public Server() {
-        var serializer = new Gson();
+        this(Storage.get());
+    }
 
-        try {
-            createDatabase();
-        } catch (SQLException ex) {
-            System.out.print("Create DB Failed");
-        }
-        try {
-            createTables();
-        } catch (SQLException ex) {
-            System.out.print("Create Table Failed");
-        }
+    public Server(Storage storage) {
+        this(storage, GameEventBus.create(ServerConfig.getString("events.bus", "local")));
+    }
+
+    /**
+     * @param eventBus carries each game's events between this node and any others with
+     *                 sessions in the same game
+     */
+    public Server(Storage storage, GameEventBus eventBus) {
+        this.eventBus = eventBus;
+        var serializer = new Gson();
+        long constructed = System.nanoTime();
 
-        javalin = Javalin.create(config -> {config.staticFiles.add("web");})
+        // the schema is checked and the JIT warmed up while Javalin starts; GET /ready reports
+        // when both are done, and requests that need storage wait for the schema
+        Executor startup = task -> Thread.ofPlatform().daemon().name("startup").start(task);
+        storageReady = CompletableFuture.supplyAsync(() -> {
+            try {
+                storage.initialize();
+                return true;
+            } catch (SQLException ex) {
+                log.error("storage initialization failed", ex);
+                return false;
+            }
+        }, startup);
+        warmedUp = CompletableFuture.runAsync(() -> Warmup.run(ServerConfig.getInt("startup.warmupGames", 20),
+                ServerConfig.getInt("startup.warmupPlies", 60)), startup)
+                .exceptionally(ex -> {
+                    log.warn("warmup failed", ex);
+                    return null;
+                });
+        CompletableFuture.allOf(storageReady, warmedUp).thenRun(() ->
+                log.info("ready {} ms after construction", (System.nanoTime() - constructed) / 1_000_000));
+
+        authService = new AuthService(storage);
+        userService = new UserService(storage);
+        gameService = new GameService(storage);
+
+        registerMetrics();
+
+        javalin = Javalin.create(config -> {
+                config.staticFiles.add("web");
+                config.requestLogger.http((ctx, executionTimeMs) -> {
+                    try {
+                        recordRequest(ctx, executionTimeMs);
+                    } finally {
+                        // the logger runs once the response is done, even if a handler threw, and the
+                        // trace must end here even if recording did too, or it follows the thread
+                        Tracer.tag("status", ctx.statusCode());
+                        Tracer.finish();
+                    }
+                });
+                // request and WebSocket handlers block on the database; on virtual threads a slow
+                // query parks one cheap thread instead of holding one of Jetty's pool threads
+                config.useVirtualThreads = ServerConfig.getBoolean("server.virtualThreads", false);
+                config.jetty.modifyWebSocketServletFactory(factory -> {
+                    factory.setIdleTimeout(Duration.ofSeconds(ServerConfig.getLong("ws.idleTimeoutSeconds", 300)));
+                    // commands are a few hundred bytes; anything near this is not a real client
+                    long maxMessage = ServerConfig.getLong("ws.maxMessageBytes", 8192);
+                    factory.setMaxTextMessageSize(maxMessage);
+                    factory.setMaxBinaryMessageSize(maxMessage);
+                    factory.setMaxFrameSize(maxMessage);
+                });
+            })
+            .before(ctx -> {
+                Tracer.start("http " + ctx.method() + " " + ctx.path());
+                if (!PROBES.contains(ctx.path())) {
+                    storageReady.join();
+                }
+            })
+            .get("/ready", ctx -> {
+                Map<String, Object> report = readiness();
+                ctx.status(Boolean.TRUE.equals(report.get("ready")) ? 200 : 503).result(serializer.toJson(report));
+            })
+            .get("/metrics", ctx -> {
+                ctx.contentType("text/plain; version=0.0.4; charset=utf-8").result(metrics.scrape());
+            })
+            .get("/admin", ctx -> {
+                Response response;
+                if (!isAdmin(ctx.header("Authorization"))) {
+                    response = new Response(401, serializer.toJson(Map.of("message", "Error: unauthorized")));
+                } else {
+                    try {
+                        Integer limit = parseQueryInt(ctx.queryParam("limit"));
+                        response = new Response(200, serializer.toJson(
+                                adminReport(limit == null ? DEFAULT_ADMIN_GAMES : limit)));
+                    } catch (NumberFormatException ex) {
+                        response = new Response(400, serializer.toJson(Map.of("message", "Error: bad request")));
+                    }
+                }
+                ctx.status(response.code()).result(response.json());
+            })
             .delete("/db", ctx -> {
                 Response response = authService.clear();
                 ctx.status(response.code()).result(response.json());
@@ -75,7 +216,14 @@ public class Server {
             .get("/game", ctx -> {
                 String authToken = ctx.header("Authorization");
 
-                Response response = gameService.getGames(authToken);
+                Response response;
+                try {
+                    Integer cursor = parseQueryInt(ctx.queryParam("cursor"));
+                    Integer limit = parseQueryInt(ctx.queryParam("limit"));
+                    response = gameService.getGames(new ListGames(authToken, cursor, limit, ctx.queryParam("status")));
+                } catch (NumberFormatException ex) {
+                    response = new Response(400, serializer.toJson(Map.of("message", "Error: bad request")));
+                }
                 ctx.status(response.code()).result(response.json());
             })
             .post("/game", ctx -> {
@@ -97,54 +245,142 @@ public class Server {
         javalin.ws("/ws", ws -> {
             ws.onConnect(ctx -> {
                 ctx.enableAutomaticPings();
+                // clients that can apply moves themselves opt in with /ws?moves=true
+                if (Boolean.parseBoolean(ctx.queryParam("moves"))) {
+                    sessions.subscribeMoves(ctx);
+                }
+                // and clients that want compact frames with /ws?format=binary
+                if (Objects.equals(ctx.queryParam("format"), "binary")) {
+                    sessions.useBinary(ctx);
+                }
+                // Jetty agrees to permessage-deflate with any client that offers it
+                if (ctx.session.getUpgradeResponse().getExtensions().stream()
+                        .anyMatch(extension -> Objects.equals(extension.getName(), "permessage-deflate"))) {
+                    sessions.useCompression(ctx);
+                }
             });
             ws.onMessage(ctx -> {
-                websocket(ctx, ctx.message());
+                receive(ctx, ctx.message());
+            });
+            ws.onBinaryMessage(ctx -> {
+                receive(ctx, ByteBuffer.wrap(ctx.data(), ctx.offset(), ctx.length()));
+            });
+            ws.onClose(ctx -> {
+                disconnect(ctx);
+            });
+            ws.onError(ctx -> {
+                disconnect(ctx);
             });
         });
     }
 
-    private void websocket(WsContext ctx, String command) throws SQLException {
-        var serializer = new Gson();
-        UserGameCommand message = serializer.fromJson(command, UserGameCommand.class);
+    void receive(WsContext ctx, String command) {
+        UserGameCommand message;
 
-        AuthData user = authService.getUser(message);
-        GameData gameData = gameService.getGame(message);
+        try {
+            message = CommandDecoder.decode(command);
+        } catch (JsonParseException ex) {
+            message = null;
+        }
 
-        if (user == null || gameData == null) {
-            ErrorMessage errorMessage = new ErrorMessage("Error: Invalid user command.\n");
-            ctx.send(serializer.toJson(errorMessage));
+        dispatch(ctx, message);
+    }
+
+    private void receive(WsContext ctx, ByteBuffer frame) {
+        UserGameCommand message;
+
+        try {
+            message = BinaryCodec.decodeCommand(frame);
+        } catch (IllegalArgumentException ex) {
+            message = null;
+        }
+
+        dispatch(ctx, message);
+    }
+
+    /**
+     * Hands a command to its game's mailbox, so commands for the same game are processed
+     * one at a time in arrival order while other games proceed in parallel.
+     */
+    private void dispatch(WsContext ctx, UserGameCommand message) {
+        if (!rateLimiter.tryAcquire(ctx)) {
+            ErrorMessage errorMessage = new ErrorMessage("Error: Too many commands, slow down.\n");
+            reply(ctx, null, errorMessage);
 
             return;
         }
 
-        Integer gameID = gameData.gameID();
+        if (message == null || message.getCommandType() == null || message.getGameID() == null ||
+                (message instanceof MakeMoveCommand makeMove && makeMove.getMove() == null)) {
+            ErrorMessage errorMessage = new ErrorMessage("Error: Invalid user command.\n");
+            reply(ctx, null, errorMessage);
 
-        if (gameSessions.get(gameID) != null && !gameSessions.get(gameID).isEmpty()) {
-            for (WsContext client : gameSessions.get(gameID)) {
-                if (!client.session.isOpen()) {
-                    gameSessions.get(gameID).remove(client);
-                }
+            return;
+        }
+
+        UserGameCommand parsed = message;
+        long received = System.nanoTime();
+        gameActors.submit(message.getGameID(), () -> {
+            RoundTrips.reset();
+            GameCommandEvent event = new GameCommandEvent();
+            event.begin();
+            try (Span trace = Tracer.start("ws " + parsed.getCommandType())) {
+                trace.tag("gameID", parsed.getGameID())
+                        .tag("queuedMs", String.format(Locale.ROOT, "%.3f", (System.nanoTime() - received) / 1e6));
+                storageReady.join();
+                websocket(ctx, parsed);
+            } catch (Exception ex) {
+                ErrorMessage errorMessage = new ErrorMessage("Error: Server error.\n");
+                reply(ctx, parsed.getGameID(), errorMessage);
             }
-            if (gameSessions.get(gameID).isEmpty()) {
-                gameStatus.remove(gameID);
+            if (event.shouldCommit()) {
+                event.gameID = parsed.getGameID();
+                event.command = parsed.getCommandType().name();
+                event.statements = RoundTrips.count();
+                event.commit();
             }
+            frameRoundTrips.record(RoundTrips.count());
+            // measured from arrival, so time spent queued behind the game's other commands counts
+            metrics.latency("chess_ws_command_seconds", "Time from receiving a WebSocket command to finishing it.",
+                    "command", parsed.getCommandType().name()).record(System.nanoTime() - received);
+        });
+    }
+
+    private void websocket(WsContext ctx, UserGameCommand message) throws SQLException {
+        AuthorizedGame context;
+        try (Span span = Tracer.span("GameService.resolve")) {
+            context = gameService.resolve(message);
+        }
+
+        if (context == null) {
+            ErrorMessage errorMessage = new ErrorMessage("Error: Invalid user command.\n");
+            reply(ctx, message.getGameID(), errorMessage);
+
+            return;
         }
 
-        gameSessions.putIfAbsent(gameID, ConcurrentHashMap.newKeySet());
-        gameSessions.get(gameID).add(ctx);
-        gameStatus.putIfAbsent(gameID, "NORMAL");
+        AuthData user = context.auth();
+        GameData gameData = context.game();
+
+        Integer gameID = gameData.gameID();
+
+        sessions.join(gameID, user.username(), ctx);
+        // other nodes' events wait their turn on the mailbox like a command, so they never race one
+        eventBus.subscribe(gameID, this::deliver, task -> gameActors.submit(gameID, task));
+        gameStatus.put(gameID, gameData.status());
 
         ChessGame game = gameData.game();
 
         if (Objects.equals(message.getCommandType(), UserGameCommand.CommandType.CONNECT)) {
             connect(game, gameData, user, ctx, gameID);
+        } else if (Objects.equals(message.getCommandType(), UserGameCommand.CommandType.RESYNC)) {
+            reply(ctx, gameID, new LoadGameMessage(game));
         } else if (Objects.equals(message.getCommandType(), UserGameCommand.CommandType.MAKE_MOVE)) {
-            makeMove(command, game, gameData, user, ctx, gameID);
+            makeMove((MakeMoveCommand) message, game, gameData, user, ctx, gameID);
         } else if (Objects.equals(message.getCommandType(), UserGameCommand.CommandType.RESIGN)) {
             if (!Objects.equals(gameStatus.get(gameID), "NORMAL")) {
                 ErrorMessage errorMessage = new ErrorMessage("Error: Game is not in session.\n");
-                ctx.send(serializer.toJson(errorMessage));
+                reply(ctx, gameID, errorMessage);
 
                 return;
             }
@@ -152,7 +388,7 @@ public class Server {
             if (!Objects.equals(user.username(), gameData.blackUsername()) &&
                     !Objects.equals(user.username(), gameData.whiteUsername())) {
                 ErrorMessage errorMessage = new ErrorMessage("Error: Invalid command.\n");
-                ctx.send(serializer.toJson(errorMessage));
+                reply(ctx, gameID, errorMessage);
 
                 return;
             }
@@ -160,56 +396,48 @@ public class Server {
             NotificationMessage notificationMessage = null;
             notificationMessage = new NotificationMessage("Player " + user.username() + " has resigned.\n");
 
-            gameStatus.put(gameID, "RESIGN");
+            GameData resigned = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(),
+                    gameData.gameName(), game, gameData.version(), "RESIGN");
+            try (Span span = Tracer.span("GameService.updateGame")) {
+                gameService.updateGame(resigned);
+            } catch (VersionConflictException ex) {
+                ErrorMessage errorMessage = new ErrorMessage("Error: Game was updated, please try again.\n");
+                reply(ctx, gameID, errorMessage);
 
-            for (WsContext client : gameSessions.get(gameID)) {
-                try {
-                    client.send(serializer.toJson(notificationMessage));
-
-                } catch (Exception e) {
-                    gameSessions.get(gameID).remove(client);
-                }
+                return;
             }
+            eventBus.publish(GameEvent.status(gameID, "RESIGN"));
+
+            eventBus.publish(GameEvent.notification(gameID, notificationMessage, null));
         } else if (Objects.equals(message.getCommandType(), UserGameCommand.CommandType.LEAVE)) {
             NotificationMessage notificationMessage = new NotificationMessage("Player " + user.username() + " has left the game.\n");
-            gameSessions.get(gameID).remove(ctx);
-
-            GameDOA gameDOA = new GameDOA();
-
-            if (Objects.equals(gameData.whiteUsername(), user.username())) {
-                GameData updateData = new GameData(gameID, null, gameData.blackUsername(),
-                        gameData.gameName(), game);
-                gameDOA.replace(updateData);
-            } else if (Objects.equals(gameData.blackUsername(), user.username())) {
-                GameData updateData = new GameData(gameID, gameData.whiteUsername(), null,
-                        gameData.gameName(), game);
-                gameDOA.replace(updateData);
-            }
+            boolean emptied = sessions.leave(gameID, ctx);
 
-            for (WsContext client : gameSessions.get(gameID)) {
-                try {
-                    client.send(serializer.toJson(notificationMessage));
+            try (Span span = Tracer.span("GameService.leaveGame")) {
+                gameService.leaveGame(user, gameData);
+            }
 
-                } catch (Exception e) {
-                    gameSessions.get(gameID).remove(client);
-                }
+            eventBus.publish(GameEvent.notification(gameID, notificationMessage, null));
+            if (emptied) {
+                gameActors.submit(gameID, () -> releaseGame(gameID));
             }
         }
     }
 
-    private void makeMove(String command, ChessGame game,
+    private void makeMove(MakeMoveCommand command, ChessGame game,
           GameData gameData, AuthData user, WsContext ctx,
           Integer gameID) throws SQLException {
-        var serializer = new Gson();
+        if (!Objects.equals(gameStatus.get(gameID), "NORMAL")) {
+            ErrorMessage errorMessage = new ErrorMessage("Error: Game is not in session.\n");
+            reply(ctx, gameID, errorMessage);
+
+            return;
+        }
 
-        MakeMoveCommand makeMove = serializer.fromJson(command, MakeMoveCommand.class);
-        ChessMove move = makeMove.getMove();
-        ChessPosition startPosition = new ChessPosition(move.getStartPosition().getRow(), move.getStartPosition().getColumn());
-        ChessPosition endPosition = new ChessPosition(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
+        ChessMove move = command.getMove();
 
         NotificationMessage notificationMessage;
 
-        move = new ChessMove(startPosition, endPosition, move.getPromotionPiece());
         ChessBoard board = game.getBoard();
 
         ChessGame.TeamColor currentColor = game.getTeamTurn();
@@ -227,49 +455,60 @@ public class Server {
 
         if (Objects.equals(user.username(), oppositeUsername)) {
             ErrorMessage errorMessage = new ErrorMessage("Error: Invalid move.\n");
-            ctx.send(serializer.toJson(errorMessage));
+            reply(ctx, gameID, errorMessage);
 
             return;
         }
 
         try {
-            if (!Objects.equals(gameStatus.get(gameID), "NORMAL")) {
-                ErrorMessage errorMessage = new ErrorMessage("Error: Game is not in session.\n");
-                ctx.send(serializer.toJson(errorMessage));
-
-                return;
+            try (Span span = Tracer.span("rules.makeMove")) {
+                game.makeMove(move);
             }
-
-            game.makeMove(move);
         } catch (Exception e) {
             ErrorMessage errorMessage = new ErrorMessage("Error: Invalid move.\n");
-            ctx.send(serializer.toJson(errorMessage));
+            reply(ctx, gameID, errorMessage);
 
             return;
         }
 
         LoadGameMessage loadMessage = new LoadGameMessage(game);
-        GameDOA gameDOA = new GameDOA();
-        GameData updateData = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(),
-                gameData.gameName(), game);
-        gameDOA.replace(updateData);
         NotificationMessage specialMessage = null;
+        String status = "NORMAL";
 
+        // the outcome is worked out before saving so the row and its status are written together
+        Span rules = Tracer.span("rules.gameState");
         boolean check = game.isInCheck(oppositeColor);
         if (check) {
             specialMessage = new NotificationMessage(oppositeColor + " Player " + oppositeUsername + " - is in check.\n");
             boolean checkmate = game.isInCheckmate(oppositeColor);
             if (checkmate) {
                 specialMessage = new NotificationMessage(oppositeColor + " Player " + oppositeUsername + " - is checkmated.\n");
-                gameStatus.put(gameID, "CHECKMATE");
+                status = "CHECKMATE";
             }
         }
 
         boolean stalemate = game.isInStalemate(oppositeColor);
         if (stalemate) {
             specialMessage = new NotificationMessage("Game is in stalemate.\n");
-            gameStatus.put(gameID, "STALEMATE");
+            status = "STALEMATE";
+        }
+        rules.close();
+
+        GameData updateData = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(),
+                gameData.gameName(), game, gameData.version(), status);
+        try (Span span = Tracer.span("GameService.updateGame")) {
+            gameService.updateGame(updateData);
+        } catch (VersionConflictException ex) {
+            // the game changed after this frame read it, so the move was checked against a stale board
+            ErrorMessage errorMessage = new ErrorMessage("Error: Game was updated, please try your move again.\n");
+            reply(ctx, gameID, errorMessage);
+
+            return;
         }
+        if (!status.equals("NORMAL")) {
+            eventBus.publish(GameEvent.status(gameID, status));
+        }
+        lastMoveAt.put(gameID, System.currentTimeMillis());
 
         if (Objects.equals(gameData.whiteUsername(), user.username())) {
             notificationMessage = new NotificationMessage("WHITE Player " + user.username() + " - moved " +
@@ -281,26 +520,22 @@ public class Server {
                     " " + parsePosition(move.getStartPosition()) + " to " + parsePosition(move.getEndPosition()) + ".\n");
         } else {
             ErrorMessage errorMessage = new ErrorMessage("Error: Invalid user command.\n");
-            ctx.send(serializer.toJson(errorMessage));
+            reply(ctx, gameID, errorMessage);
             return;
         }
 
-        for (WsContext client : gameSessions.get(gameID)) {
-            try {
-                if (specialMessage != null) { client.send(serializer.toJson(specialMessage)); }
-                if (!Objects.equals(client, ctx)) {
-                    client.send(serializer.toJson(notificationMessage));
-                    client.send(serializer.toJson(loadMessage));
-                } else {
-                    client.send(serializer.toJson(loadMessage));
-                }
-            } catch (Exception e) { gameSessions.get(gameID).remove(client); }
+        Span fanOut = Tracer.span("broadcast").tag("sessions", sessions.count(gameID));
+        if (specialMessage != null) {
+            eventBus.publish(GameEvent.notification(gameID, specialMessage, null));
         }
+        eventBus.publish(GameEvent.notification(gameID, notificationMessage, ctx.sessionId()));
+        eventBus.publish(GameEvent.move(gameID, new MoveMessage(move, game.getPly(), game.positionHash())));
+        eventBus.publish(GameEvent.loadGame(gameID, loadMessage));
+        fanOut.close();
     }
 
     private void connect(ChessGame game, GameData gameData,
                          AuthData user, WsContext ctx, Integer gameID) {
-        var serializer = new Gson();
         LoadGameMessage loadMessage = new LoadGameMessage(game);
 
         NotificationMessage notificationMessage;
@@ -313,17 +548,214 @@ public class Server {
             notificationMessage = new NotificationMessage("Player " + user.username() + " joined as an OBSERVER.\n");
         }
 
-        for (WsContext client : gameSessions.get(gameID)) {
-            try {
-                if (!Objects.equals(client, ctx)) {
-                    client.send(serializer.toJson(notificationMessage));
-                } else {
-                    client.send(serializer.toJson(loadMessage));
-                }
-            } catch (Exception e) {
-                gameSessions.get(gameID).remove(client);
-            }
+        reply(ctx, gameID, loadMessage);
+        eventBus.publish(GameEvent.notification(gameID, notificationMessage, ctx.sessionId()));
+    }
+
+    /**
+     * Sends a game event, published here or on another node, to this node's sessions in
+     * the game. Runs on the game's mailbox either way.
+     */
+    private void deliver(GameEvent event) {
+        int gameID = event.gameID();
+        Collection<WsContext> players = sessions.sessions(gameID);
+        Consumer<WsContext> onFailure = client -> dropSession(gameID, client);
+
+        switch (event.type()) {
+            case NOTIFICATION -> broadcaster.broadcastTo(players, event.payload(),
+                    client -> !Objects.equals(client.sessionId(), event.excludeSession()), onFailure);
+            // move subscribers apply the move to their own board; everyone else gets the whole game
+            case MOVE -> broadcaster.broadcastTo(players, event.payload(), sessions::wantsMoves, onFailure);
+            case LOAD_GAME -> broadcaster.broadcastTo(players, event.payload(),
+                    client -> !sessions.wantsMoves(client), onFailure);
+            // replace, not put: an event that arrives after the game was released must not bring it back
+            case STATUS -> gameStatus.replace(gameID, (String) event.payload());
+        }
+    }
+
+    private void reply(WsContext ctx, Integer gameID, Object message) {
+        if (message instanceof ErrorMessage) {
+            commandErrors.incrementAndGet();
+        }
+        broadcaster.send(ctx, message, client -> dropSession(gameID, client));
+    }
+
+    /**
+     * Takes a session whose send failed out of its game, releasing the game on its mailbox
+     * if that was its last session here.
+     */
+    private void dropSession(Integer gameID, WsContext client) {
+        if (gameID != null && sessions.leave(gameID, client)) {
+            gameActors.submit(gameID, () -> releaseGame(gameID));
+        }
+    }
+
+    /**
+     * Forgets a closed session. A game left with no sessions is released, which is done
+     * on the game's own mailbox so it cannot interleave with a command.
+     */
+    private void disconnect(WsContext ctx) {
+        broadcaster.release(ctx);
+        rateLimiter.release(ctx);
+
+        for (Integer gameID : sessions.disconnect(ctx)) {
+            gameActors.submit(gameID, () -> releaseGame(gameID));
+        }
+    }
+
+    /**
+     * Forgets a game that has no sessions left on this node, and stops listening for its
+     * events.
+     */
+    private void releaseGame(Integer gameID) {
+        if (sessions.count(gameID) == 0) {
+            gameStatus.remove(gameID);
+            lastMoveAt.remove(gameID);
+            eventBus.unsubscribe(gameID);
+        }
+    }
+
+    /**
+     * The admin endpoint is closed unless admin.token is set, and then only that token opens it.
+     */
+    private boolean isAdmin(String authToken) {
+        String adminToken = ServerConfig.getString("admin.token", "");
+        if (adminToken.isBlank() || authToken == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8),
+                authToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A read-only snapshot of live state: the busiest games first, then the sizes of every
+     * per-session structure so a session that was never cleaned up stands out.
+     */
+    Map<String, Object> adminReport(int limit) {
+        Map<Integer, Integer> counts = sessions.counts();
+        Set<Integer> gameIDs = new HashSet<>(counts.keySet());
+        gameIDs.addAll(gameStatus.keySet());
+
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> games = new ArrayList<>();
+        for (Integer gameID : gameIDs) {
+            Map<String, Object> game = new LinkedHashMap<>();
+            game.put("gameID", gameID);
+            game.put("sessions", counts.getOrDefault(gameID, 0));
+            game.put("status", gameStatus.get(gameID));
+            Long lastMove = lastMoveAt.get(gameID);
+            game.put("lastMoveAt", lastMove == null ? null : Instant.ofEpochMilli(lastMove).toString());
+            game.put("idleSeconds", lastMove == null ? null : (now - lastMove) / 1000);
+            game.put("pendingCommands", gameActors.pendingCount(gameID));
+            games.add(game);
+        }
+        games.sort(Comparator.comparing((Map<String, Object> game) -> (Integer) game.get("sessions"))
+                .thenComparing(game -> (Integer) game.get("pendingCommands"))
+                .reversed());
+
+        Map<String, Object> queues = new LinkedHashMap<>();
+        queues.put("gameMailboxes", gameActors.activeCount());
+        queues.put("sendQueues", broadcaster.queueCount());
+        queues.put("queuedMessages", broadcaster.queuedMessageCount());
+        queues.put("passwordHashQueue", PasswordHasher.getInstance().queueDepth());
+
+        Map<String, Object> state = new LinkedHashMap<>(sessions.indexSizes());
+        state.put("rateLimiterBuckets", rateLimiter.bucketCount());
+        state.put("gameStatus", gameStatus.size());
+        state.put("lastMoveAt", lastMoveAt.size());
+
+        Map<String, Object> passwordHasher = new LinkedHashMap<>();
+        passwordHasher.put("active", PasswordHasher.getInstance().activeCount());
+        passwordHasher.put("completed", PasswordHasher.getInstance().completedCount());
+        passwordHasher.put("rejected", PasswordHasher.getInstance().rejectedCount());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("activeGames", gameIDs.size());
+        report.put("sessions", sessions.sessionCount());
+        report.put("games", games.subList(0, Math.min(Math.max(0, limit), games.size())));
+        report.put("queues", queues);
+        report.put("state", state);
+        report.put("passwordHasher", passwordHasher);
+        return report;
+    }
+
+    private void recordRequest(Context ctx, Float executionTimeMs) {
+        String route;
+        if (ctx.handlerType() == HandlerType.BEFORE) {
+            // no endpoint handler matched, so the request was a static file or a 404, and Javalin
+            // refuses to report an endpoint path for it
+            route = ctx.statusCode() == 404 ? "unmatched" : "static";
+        } else {
+            String path = ctx.endpointHandlerPath();
+            route = ROUTES.contains(path) ? ctx.method() + " " + path : "other";
+        }
+
+        metrics.latency("chess_http_request_seconds", "Time spent handling REST requests.", "route", route)
+                .record((long) (executionTimeMs * 1_000_000));
+
+        if (ctx.statusCode() >= 500) {
+            serverErrors.incrementAndGet();
+        } else if (ctx.statusCode() >= 400) {
+            clientErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return whether the server is ready, with the state of each startup step:
+     *     storage is pending, ok or failed, and warmup is pending or done
+     */
+    private Map<String, Object> readiness() {
+        String storageState = !storageReady.isDone() ? "pending" : storageReady.join() ? "ok" : "failed";
+        String warmupState = warmedUp.isDone() ? "done" : "pending";
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ready", storageState.equals("ok") && warmupState.equals("done"));
+        report.put("storage", storageState);
+        report.put("warmup", warmupState);
+        return report;
+    }
+
+    private void registerMetrics() {
+        metrics.gauge("chess_ready", "1 once storage is verified and warmup has finished.",
+                () -> Boolean.TRUE.equals(readiness().get("ready")) ? 1 : 0);
+        metrics.counter("chess_http_client_errors_total", "REST responses with a 4xx status.", clientErrors::get);
+        metrics.counter("chess_http_server_errors_total", "REST responses with a 5xx status.", serverErrors::get);
+        metrics.counter("chess_ws_errors_total", "ERROR messages sent to WebSocket clients.", commandErrors::get);
+        metrics.counter("chess_ws_rate_limited_total", "WebSocket commands refused by the rate limiter.",
+                rateLimiter::rejectedCount);
+
+        metrics.gauge("chess_ws_sessions", "Open WebSocket sessions that have joined a game.", sessions::sessionCount);
+        metrics.gauge("chess_active_games", "Games with at least one connected session.", sessions::gameCount);
+        metrics.gauge("chess_game_mailboxes", "Games with commands queued or running.", gameActors::activeCount);
+
+        metrics.counter("chess_db_statements_total", "Statements sent to the database.",
+                RoundTrips::total);
+        metrics.gauge("chess_ws_command_db_statements_mean", "Mean database statements per WebSocket command.",
+                frameRoundTrips::meanPerFrame);
+        metrics.gauge("chess_ws_command_db_statements_max", "Most database statements any one command has needed.",
+                frameRoundTrips::maxPerFrame);
+
+        metrics.counter("chess_ws_broadcasts_total", "Messages fanned out to a game.", broadcaster::broadcastCount);
+        metrics.counter("chess_ws_deliveries_total", "Messages queued to individual sessions.",
+                broadcaster::deliveryCount);
+        metrics.counter("chess_ws_send_failures_total", "Sends that failed and dropped their session.",
+                broadcaster::failureCount);
+        metrics.counter("chess_ws_send_overflows_total", "Sessions closed because their send queue filled.",
+                broadcaster::overflowCount);
+        metrics.counter("chess_ws_send_compacted_total", "Queued boards discarded for a slow session's newer board.",
+                broadcaster::compactedCount);
+        metrics.counter("chess_ws_sent_bytes_total", "Payload bytes queued to sessions, before compression.",
+                () -> broadcaster.wireStats().rawBytes());
+        metrics.gauge("chess_ws_compression_ratio",
+                "Estimated compressed size as a fraction of the raw size, for sessions using permessage-deflate.",
+                () -> broadcaster.wireStats().compressionRatio());
+    }
+
+    private Integer parseQueryInt(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
         }
+        return Integer.parseInt(value.trim());
     }
 
     private String parsePosition(ChessPosition position) {
@@ -382,5 +814,7 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        commandExecutor.shutdown();
+        eventBus.close();
     }
 }
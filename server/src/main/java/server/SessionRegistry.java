@@ -0,0 +1,182 @@
+package server;
+
+import io.javalin.websocket.WsContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which WebSocket sessions belong to which games and users. Alongside the
+ * game→sessions index it keeps session→games and user→sessions, so a closed session is
+ * removed from everywhere it appears without scanning any game's observers.
+ * <p>
+ * Each index entry is created and removed inside a per-key compute, so an entry is never
+ * dropped while another thread is adding to it.
+ */
+public class SessionRegistry {
+    private final Map<Integer, Set<WsContext>> sessionsByGame = new ConcurrentHashMap<>();
+    private final Map<WsContext, Set<Integer>> gamesBySession = new ConcurrentHashMap<>();
+    private final Map<String, Set<WsContext>> sessionsByUser = new ConcurrentHashMap<>();
+    private final Map<WsContext, String> userBySession = new ConcurrentHashMap<>();
+    private final Set<WsContext> moveSubscribers = ConcurrentHashMap.newKeySet();
+    private final Set<WsContext> binarySessions = ConcurrentHashMap.newKeySet();
+    private final Set<WsContext> compressedSessions = ConcurrentHashMap.newKeySet();
+
+    public void join(Integer gameID, String username, WsContext session) {
+        add(sessionsByGame, gameID, session);
+        add(gamesBySession, session, gameID);
+        if (userBySession.putIfAbsent(session, username) == null) {
+            add(sessionsByUser, username, session);
+        }
+    }
+
+    /**
+     * Marks a session as wanting MOVE messages rather than a LOAD_GAME after every move.
+     */
+    public void subscribeMoves(WsContext session) {
+        moveSubscribers.add(session);
+    }
+
+    public boolean wantsMoves(WsContext session) {
+        return moveSubscribers.contains(session);
+    }
+
+    /**
+     * Marks a session as speaking {@link websocket.BinaryCodec} frames rather than JSON.
+     */
+    public void useBinary(WsContext session) {
+        binarySessions.add(session);
+    }
+
+    public boolean prefersBinary(WsContext session) {
+        return binarySessions.contains(session);
+    }
+
+    /**
+     * Marks a session as having negotiated permessage-deflate, so what it is sent counts
+     * towards the compression estimate.
+     */
+    public void useCompression(WsContext session) {
+        compressedSessions.add(session);
+    }
+
+    public boolean isCompressed(WsContext session) {
+        return compressedSessions.contains(session);
+    }
+
+    /**
+     * Removes a session from one game, leaving it in any others it has joined.
+     *
+     * @return whether the game has no sessions left as a result
+     */
+    public boolean leave(Integer gameID, WsContext session) {
+        remove(gamesBySession, session, gameID);
+        return remove(sessionsByGame, gameID, session);
+    }
+
+    /**
+     * Removes a closed session from every index.
+     *
+     * @return the games that have no sessions left as a result
+     */
+    public List<Integer> disconnect(WsContext session) {
+        List<Integer> emptied = new ArrayList<>();
+
+        Set<Integer> gameIDs = gamesBySession.remove(session);
+        if (gameIDs != null) {
+            for (Integer gameID : gameIDs) {
+                if (remove(sessionsByGame, gameID, session)) {
+                    emptied.add(gameID);
+                }
+            }
+        }
+
+        moveSubscribers.remove(session);
+        binarySessions.remove(session);
+        compressedSessions.remove(session);
+
+        String username = userBySession.remove(session);
+        if (username != null) {
+            remove(sessionsByUser, username, session);
+        }
+
+        return emptied;
+    }
+
+    /**
+     * @return a live view of the sessions in a game, empty if there are none
+     */
+    public Collection<WsContext> sessions(Integer gameID) {
+        Set<WsContext> sessions = sessionsByGame.get(gameID);
+        return sessions == null ? Set.of() : sessions;
+    }
+
+    public Collection<WsContext> sessionsFor(String username) {
+        Set<WsContext> sessions = sessionsByUser.get(username);
+        return sessions == null ? Set.of() : sessions;
+    }
+
+    public int count(Integer gameID) {
+        return sessions(gameID).size();
+    }
+
+    /**
+     * @return a snapshot of the number of sessions in each game that has any
+     */
+    public Map<Integer, Integer> counts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        sessionsByGame.forEach((gameID, sessions) -> counts.put(gameID, sessions.size()));
+        return counts;
+    }
+
+    public int sessionCount() {
+        return gamesBySession.size();
+    }
+
+    public int gameCount() {
+        return sessionsByGame.size();
+    }
+
+    /**
+     * @return the number of entries in each index. Once every session has closed they should
+     * all be zero; anything left over is a session that was never removed.
+     */
+    public Map<String, Integer> indexSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("sessionsByGame", sessionsByGame.size());
+        sizes.put("gamesBySession", gamesBySession.size());
+        sizes.put("sessionsByUser", sessionsByUser.size());
+        sizes.put("userBySession", userBySession.size());
+        sizes.put("moveSubscribers", moveSubscribers.size());
+        sizes.put("binarySessions", binarySessions.size());
+        sizes.put("compressedSessions", compressedSessions.size());
+        return sizes;
+    }
+
+    private static <K, V> void add(Map<K, Set<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            Set<V> set = values == null ? ConcurrentHashMap.newKeySet() : values;
+            set.add(value);
+            return set;
+        });
+    }
+
+    /**
+     * @return true if this removal left the key with no values
+     */
+    private static <K, V> boolean remove(Map<K, Set<V>> index, K key, V value) {
+        boolean[] emptied = {false};
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            emptied[0] = values.isEmpty();
+            return emptied[0] ? null : values;
+        });
+        return emptied[0];
+    }
+}
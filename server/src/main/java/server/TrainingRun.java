@@ -0,0 +1,226 @@
+package server;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import dataaccess.Storage;
+import model.UserData;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The training run for the server's class-data sharing archive. It starts a server on
+ * in-memory storage and drives each main flow through it once over real HTTP and WebSocket
+ * connections: registering, logging in, creating, listing and joining a game, playing it
+ * to checkmate with a JSON and a binary session watching, and logging out. It then exits
+ * so the JVM can write every class it loaded to the archive. The cds profile runs it
+ * against the packaged jar:
+ * <pre>
+ *     mvn -Pcds verify
+ * </pre>
+ */
+public final class TrainingRun {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // fool's mate, so the game ends in checkmate and the status path is trained too
+    private static final int[][] MOVES = {{2, 6, 3, 6}, {7, 5, 5, 5}, {2, 7, 4, 7}, {8, 4, 4, 8}};
+
+    private final String baseUrl;
+    private final String webSocketUrl;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    private final Gson serializer = new Gson();
+    private final List<Session> sessions = new ArrayList<>();
+
+    private TrainingRun(int port) {
+        this.baseUrl = "http://localhost:" + port;
+        this.webSocketUrl = "ws://localhost:" + port + "/ws";
+    }
+
+    public static void main(String[] args) throws Exception {
+        // looks the JDBC driver up the way the first MySQL connection would
+        DriverManager.getDrivers();
+
+        Server server = new Server(Storage.create("memory"));
+        int port = server.run(0);
+        try {
+            new TrainingRun(port).run();
+        } finally {
+            server.stop();
+        }
+        // the password hasher's pool is not daemon, and the archive is written at exit
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        awaitReady();
+        request("GET", "/metrics", null, null);
+        request("DELETE", "/db", null, null);
+
+        String white = register("white");
+        String black = register("black");
+        String observer = register("observer");
+        String login = value(request("POST", "/session", null, new UserData("training-white", "password", null)),
+                "authToken");
+        request("DELETE", "/session", login, null);
+
+        int gameID = ((Number) json(request("POST", "/game", white, Map.of("gameName", "training")))
+                .get("gameID")).intValue();
+        request("PUT", "/game", white, Map.of("playerColor", "WHITE", "gameID", gameID));
+        request("PUT", "/game", black, Map.of("playerColor", "BLACK", "gameID", gameID));
+        request("GET", "/game", white, null);
+        request("GET", "/game?status=NORMAL&limit=10", white, null);
+
+        Session whiteSession = connect(white, gameID, "");
+        Session blackSession = connect(black, gameID, "");
+        Session observerSession = connect(observer, gameID, "?format=binary&moves=true");
+
+        for (int i = 0; i < MOVES.length; i++) {
+            int[] move = MOVES[i];
+            Session mover = i % 2 == 0 ? whiteSession : blackSession;
+            String authToken = i % 2 == 0 ? white : black;
+            ChessMove chessMove = new ChessMove(new ChessPosition(move[0], move[1]),
+                    new ChessPosition(move[2], move[3]), null);
+            mover.send(serializer.toJson(new MakeMoveCommand(authToken, gameID, chessMove)));
+            mover.await("LOAD_GAME");
+        }
+
+        // the game is over, so this is turned away with an error
+        whiteSession.send(serializer.toJson(new UserGameCommand(UserGameCommand.CommandType.RESIGN, white, gameID)));
+        whiteSession.await("ERROR");
+        observerSession.send(serializer.toJson(new UserGameCommand(UserGameCommand.CommandType.LEAVE, observer,
+                gameID)));
+
+        for (Session session : sessions) {
+            session.socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        request("DELETE", "/session", white, null);
+        request("DELETE", "/session", black, null);
+    }
+
+    private void awaitReady() throws IOException, InterruptedException, TimeoutException {
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        HttpRequest ready = HttpRequest.newBuilder(URI.create(baseUrl + "/ready")).timeout(TIMEOUT).build();
+        while (http.send(ready, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new TimeoutException("server did not become ready");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private String register(String name) throws IOException, InterruptedException {
+        String username = "training-" + name;
+        return value(request("POST", "/user", null, new UserData(username, "password", username + "@training")),
+                "authToken");
+    }
+
+    private String request(String method, String path, String authToken, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(serializer.toJson(body)));
+        if (authToken != null) {
+            builder.header("Authorization", authToken);
+        }
+
+        HttpResponse<String> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": " +
+                    response.body());
+        }
+        return response.body();
+    }
+
+    private Map<?, ?> json(String body) {
+        return serializer.fromJson(body, Map.class);
+    }
+
+    private String value(String body, String key) {
+        return (String) json(body).get(key);
+    }
+
+    /**
+     * Opens a session, joins the game and waits for the board, so the game's sessions are
+     * all in place before any move is made.
+     */
+    private Session connect(String authToken, int gameID, String query) throws Exception {
+        Session session = new Session();
+        session.socket = http.newWebSocketBuilder().connectTimeout(TIMEOUT)
+                .buildAsync(URI.create(webSocketUrl + query), session)
+                .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        sessions.add(session);
+
+        session.send(serializer.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID)));
+        session.await(null);
+        return session;
+    }
+
+    /**
+     * One WebSocket connection and the messages it has received: JSON frames as text, and
+     * binary frames as a placeholder since only their arrival matters here.
+     */
+    private static final class Session implements WebSocket.Listener {
+        private final BlockingQueue<String> inbox = new LinkedBlockingQueue<>();
+        private final StringBuilder partial = new StringBuilder();
+        private WebSocket socket;
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                inbox.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            if (last) {
+                inbox.add("binary");
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void send(String text) throws Exception {
+            socket.sendText(text, true).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Waits for a message of this server message type, skipping others, or for any
+         * message if the type is null.
+         */
+        private void await(String type) throws InterruptedException, TimeoutException {
+            long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+            while (true) {
+                String message = inbox.poll(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (message == null) {
+                    throw new TimeoutException("no " + (type == null ? "message" : type) + " from the server");
+                }
+                if (type == null || message.contains("\"" + type + "\"")) {
+                    return;
+                }
+            }
+        }
+    }
+}
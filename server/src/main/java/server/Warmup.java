@@ -0,0 +1,104 @@
+package server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import model.GameData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import websocket.BinaryCodec;
+import websocket.commands.MakeMoveCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays synthetic games through the code a real move runs, before the server reports
+ * ready. Each ply decodes the command in both formats, applies it, checks for the end of
+ * the game, and encodes the broadcasts and the stored board. The first real games then
+ * find the classes loaded, Gson's reflective adapters built and the move generator
+ * compiled. Nothing here touches storage or sessions.
+ */
+final class Warmup {
+    private static final Logger log = LoggerFactory.getLogger(Warmup.class);
+
+    private Warmup() {
+    }
+
+    /**
+     * @return how many plies were played in total
+     */
+    static int run(int games, int maxPlies) {
+        long started = System.nanoTime();
+        Gson serializer = new Gson();
+        Random random = new Random(240);
+
+        int plies = 0;
+        for (int gameID = 1; gameID <= games; gameID++) {
+            plies += play(serializer, random, gameID, maxPlies);
+        }
+
+        log.info("warmed up with {} synthetic games, {} plies, in {} ms", games, plies,
+                (System.nanoTime() - started) / 1_000_000);
+        return plies;
+    }
+
+    private static int play(Gson serializer, Random random, int gameID, int maxPlies) {
+        ChessGame game = new ChessGame();
+
+        int ply = 0;
+        for (; ply < maxPlies; ply++) {
+            ChessMove move = randomMove(game, random);
+            if (move == null) {
+                break;
+            }
+
+            MakeMoveCommand command = new MakeMoveCommand("warmup", gameID, move);
+            CommandDecoder.decode(serializer.toJson(command));
+            BinaryCodec.decodeCommand(ByteBuffer.wrap(BinaryCodec.encodeCommand(command)));
+
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException ex) {
+                throw new IllegalStateException("warmup picked an illegal move " + move, ex);
+            }
+            ChessGame.TeamColor next = game.getTeamTurn();
+            if (game.isInCheck(next)) {
+                game.isInCheckmate(next);
+            }
+            game.isInStalemate(next);
+
+            MoveMessage moveMessage = new MoveMessage(move, game.getPly(), game.positionHash());
+            serializer.toJson(moveMessage);
+            BinaryCodec.encodeMessage(moveMessage);
+            LoadGameMessage loadMessage = new LoadGameMessage(game);
+            serializer.toJson(loadMessage);
+            BinaryCodec.decodeMessage(ByteBuffer.wrap(BinaryCodec.encodeMessage(loadMessage)));
+            serializer.fromJson(serializer.toJson(game), ChessGame.class);
+        }
+
+        serializer.fromJson(serializer.toJson(new GameData(gameID, "white", "black", "warmup", game)), GameData.class);
+        return ply;
+    }
+
+    private static ChessMove randomMove(ChessGame game, Random random) {
+        List<ChessMove> legal = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    legal.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return legal.isEmpty() ? null : legal.get(random.nextInt(legal.size()));
+    }
+}
@@ -0,0 +1,103 @@
+package server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Counts the bytes the WebSocket endpoint sends and estimates what they cost after
+ * permessage-deflate, for the sessions that negotiated it. Jetty compresses inside the
+ * connection and does not report the result, so every {@code sampleEvery}-th payload sent
+ * to such a session is deflated here the same way (raw deflate, sync flush) and the ratio
+ * seen on those samples is applied to their raw total. Sessions without the extension are
+ * counted at their raw size.
+ */
+public class WireStats {
+    private final int sampleEvery;
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong compressedPayloads = new AtomicLong();
+    private final AtomicLong compressedRawBytes = new AtomicLong();
+    private final AtomicLong sampledRawBytes = new AtomicLong();
+    private final AtomicLong sampledDeflatedBytes = new AtomicLong();
+
+    public WireStats(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    /**
+     * @return a newly encoded payload's size in bytes on the wire, before compression
+     */
+    public int encoded(Object payload) {
+        return bytes(payload).length;
+    }
+
+    /**
+     * Records one payload of {@code bytes} handed to a session, sampling its compressed
+     * size if the session negotiated permessage-deflate.
+     */
+    public void sent(Object payload, int bytes, boolean compressed) {
+        frames.incrementAndGet();
+        rawBytes.addAndGet(bytes);
+
+        if (compressed) {
+            compressedRawBytes.addAndGet(bytes);
+            if (compressedPayloads.getAndIncrement() % sampleEvery == 0) {
+                sampledRawBytes.addAndGet(bytes);
+                sampledDeflatedBytes.addAndGet(deflatedSize(bytes(payload)));
+            }
+        }
+    }
+
+    public long frameCount() {
+        return frames.get();
+    }
+
+    public long rawBytes() {
+        return rawBytes.get();
+    }
+
+    /**
+     * @return the sampled compressed size as a fraction of the raw size, or 1 before any
+     * payload has gone to a session using permessage-deflate
+     */
+    public double compressionRatio() {
+        long raw = sampledRawBytes.get();
+        return raw == 0 ? 1.0 : (double) sampledDeflatedBytes.get() / raw;
+    }
+
+    /**
+     * @return the raw bytes sent to sessions using permessage-deflate
+     */
+    public long compressedRawBytes() {
+        return compressedRawBytes.get();
+    }
+
+    public long estimatedCompressedBytes() {
+        long compressed = compressedRawBytes();
+        return rawBytes() - compressed + Math.round(compressed * compressionRatio());
+    }
+
+    private static byte[] bytes(Object payload) {
+        return payload instanceof byte[] binary ? binary : ((String) payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int deflatedSize(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            byte[] buffer = new byte[Math.max(64, bytes.length)];
+            int size = 0;
+            int written;
+            do {
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                size += written;
+            } while (written == buffer.length);
+            // permessage-deflate drops the 4-byte empty block that ends a sync flush
+            return Math.max(0, size - 4);
+        } finally {
+            deflater.end();
+        }
+    }
+}
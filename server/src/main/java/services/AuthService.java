@@ -1,15 +1,12 @@
 package services;
 
 import com.google.gson.Gson;
-import dataaccess.AuthDOA;
-import dataaccess.GameDOA;
 import dataaccess.InterfaceDOA;
-import dataaccess.UserDOA;
+import dataaccess.Storage;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
 import org.eclipse.jetty.server.Authentication;
-import org.mindrot.jbcrypt.BCrypt;
 import requests.Response;
 import websocket.commands.UserGameCommand;
 
@@ -18,11 +15,19 @@ import java.util.Map;
 import java.util.UUID;
 
 public class AuthService {
-    InterfaceDOA<AuthData> authDOA = new AuthDOA();
-    InterfaceDOA<UserData> userDOA = new UserDOA();
-    InterfaceDOA<GameData> gameDOA = new GameDOA();
+    InterfaceDOA<AuthData> authDOA;
+    InterfaceDOA<UserData> userDOA;
+    InterfaceDOA<GameData> gameDOA;
+    PasswordHasher passwordHasher = PasswordHasher.getInstance();
 
     public AuthService() {
+        this(Storage.get());
+    }
+
+    public AuthService(Storage storage) {
+        this.authDOA = storage.authDOA();
+        this.userDOA = storage.userDOA();
+        this.gameDOA = storage.gameDOA();
     }
 
     public Response createSession(UserData newUser) {
@@ -41,7 +46,14 @@ public class AuthService {
 
 
 
-        if (oldUser == null || !BCrypt.checkpw(newUser.password(), oldUser.password())) {
+        boolean passwordMatches;
+        try {
+            passwordMatches = oldUser != null && passwordHasher.check(newUser.password(), oldUser.password());
+        } catch (PasswordHasher.BusyException ex) {
+            return new Response(503, serializer.toJson(Map.of("message", "Error: server busy")));
+        }
+
+        if (!passwordMatches) {
             return new Response(401, serializer.toJson(Map.of("message", "Error: unauthorized")));
         }
 
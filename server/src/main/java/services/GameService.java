@@ -2,27 +2,47 @@ package services;
 
 import chess.ChessGame;
 import com.google.gson.Gson;
-import dataaccess.AuthDOA;
-import dataaccess.GameDOA;
+import dataaccess.AuthorizedGame;
 import dataaccess.InterfaceDOA;
+import dataaccess.InterfaceGameDOA;
+import dataaccess.Storage;
+import dataaccess.VersionConflictException;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import requests.CreateGame;
 import requests.JoinGame;
+import requests.ListGames;
 import requests.Response;
 import websocket.commands.UserGameCommand;
 
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 
 public class GameService {
-    InterfaceDOA<AuthData> authDOA = new AuthDOA();
-    InterfaceDOA<GameData> gameDOA = new GameDOA();
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final Set<String> STATUSES = Set.of("NORMAL", "RESIGN", "CHECKMATE", "STALEMATE");
+
+    InterfaceDOA<AuthData> authDOA;
+    InterfaceGameDOA gameDOA;
 
     public GameService() {
+        this(Storage.get());
+    }
+
+    public GameService(Storage storage) {
+        this.authDOA = storage.authDOA();
+        this.gameDOA = storage.gameDOA();
     }
 
     public Response joinGame(JoinGame request) {
@@ -43,57 +63,62 @@ public class GameService {
             return new Response(400, serializer.toJson(Map.of("message", "Error: bad request")));
         }
 
-        Collection<GameData> games;
-        try {
-            games = gameDOA.list();
-        } catch (SQLException ex) {
-            return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
-        }
-
-        System.out.println("All Games: " + serializer.toJson(games));
-
-        AtomicReference<GameData> game = new AtomicReference<>();
-
-        games.forEach( x -> {
-            if (Objects.equals(x.gameID(), request.gameID())) {
-                game.set(x);
-            }
-        });
-
-        if (game.get() == null) {
-            return new Response(400, serializer.toJson(Map.of("message", "Error: unauthorized")));
-        }
-
-        if ((game.get().blackUsername() != null && Objects.equals(request.playerColor(), "BLACK")) ||
-                (game.get().whiteUsername() != null && Objects.equals(request.playerColor(), "WHITE"))) {
-            return new Response(403, serializer.toJson(Map.of("message", "Error: already taken")));
-        }
-
-        if (Objects.equals(request.playerColor(), "BLACK")) {
+        for (int attempt = 1; ; attempt++) {
+            GameData game;
             try {
-                gameDOA.replace(new GameData(game.get().gameID(), game.get().whiteUsername(),
-                        session.username(), game.get().gameName(), game.get().game()));
+                game = gameDOA.get(String.valueOf(request.gameID()));
             } catch (SQLException ex) {
                 return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
             }
-        } else {
+
+            if (game == null) {
+                return new Response(400, serializer.toJson(Map.of("message", "Error: unauthorized")));
+            }
+
+            if ((game.blackUsername() != null && Objects.equals(request.playerColor(), "BLACK")) ||
+                    (game.whiteUsername() != null && Objects.equals(request.playerColor(), "WHITE"))) {
+                return new Response(403, serializer.toJson(Map.of("message", "Error: already taken")));
+            }
+
             try {
-                gameDOA.replace(new GameData(game.get().gameID(), session.username(),
-                        game.get().blackUsername(), game.get().gameName(), game.get().game()));
+                if (Objects.equals(request.playerColor(), "BLACK")) {
+                    gameDOA.replace(new GameData(game.gameID(), game.whiteUsername(),
+                            session.username(), game.gameName(), game.game(), game.version(), game.status()));
+                } else {
+                    gameDOA.replace(new GameData(game.gameID(), session.username(),
+                            game.blackUsername(), game.gameName(), game.game(), game.version(), game.status()));
+                }
+                break;
+            } catch (VersionConflictException ex) {
+                // someone else updated the game first; re-read it and check the seat again
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    return new Response(409, serializer.toJson(Map.of("message", "Error: game is busy, try again")));
+                }
             } catch (SQLException ex) {
                 return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
             }
         }
 
+        log.debug("joined game gameID={} username={} color={}", request.gameID(), session.username(),
+                request.playerColor());
         return new Response(200, "{}");
     }
 
     public Response getGames(String authToken) {
+        return getGames(new ListGames(authToken, null, null));
+    }
+
+    /**
+     * Lists one page of game summaries. The board of each game is never loaded; clients
+     * fetch the next page by passing the returned nextCursor back as the cursor. A status
+     * narrows the listing to games in that state.
+     */
+    public Response getGames(ListGames request) {
         var serializer = new Gson();
         AuthData session;
 
         try{
-            session = authDOA.get(authToken);
+            session = authDOA.get(request.authToken());
         } catch (SQLException ex) {
             return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
         }
@@ -101,15 +126,33 @@ public class GameService {
             return new Response(401, serializer.toJson(Map.of("message", "Error: unauthorized")));
         }
 
-        Collection<GameData> games;
+        int cursor = request.cursor() == null ? 0 : request.cursor();
+        int limit = request.limit() == null ? DEFAULT_PAGE_SIZE : request.limit();
+
+        if (cursor < 0 || limit < 1 || limit > MAX_PAGE_SIZE ||
+                (request.status() != null && !STATUSES.contains(request.status()))) {
+            return new Response(400, serializer.toJson(Map.of("message", "Error: bad request")));
+        }
+
+        Collection<GameSummary> games;
         try {
-            games = gameDOA.list();
+            games = gameDOA.listSummaries(cursor, limit, request.status());
         } catch (SQLException ex) {
             return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
         }
 
-        System.out.print("Games: " + games);
-        return new Response(200, serializer.toJson(Map.of("games", games)));
+        log.debug("listed games count={} cursor={} limit={}", games.size(), cursor, limit);
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("games", games);
+        if (games.size() == limit) {
+            int lastGameID = 0;
+            for (GameSummary game : games) {
+                lastGameID = game.gameID();
+            }
+            page.put("nextCursor", lastGameID);
+        }
+        return new Response(200, serializer.toJson(page));
     }
 
     public Response createGame(CreateGame request) {
@@ -132,42 +175,73 @@ public class GameService {
             return new Response(400, serializer.toJson(Map.of("message", "Error: bad request")));
         }
 
-        GameData oldGame;
-        try {
-            oldGame = gameDOA.get(null);
-        } catch (SQLException ex) {
-            return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
-        }
-
         ChessGame chessGame = new ChessGame();
 
-        int gameID = 1;
-        if (oldGame != null) {
-            gameID = oldGame.gameID() + 1;
-        }
+        int gameID;
         try {
-            gameDOA.create(new GameData(gameID, null, null, newGame.gameName(), chessGame));
+            gameID = gameDOA.insert(new GameData(0, null, null, newGame.gameName(), chessGame));
         } catch (SQLException ex) {
             return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
         }
         return new Response(200, serializer.toJson(Map.of("gameID", gameID)));
     }
 
-    public GameData getGame(UserGameCommand command) throws SQLException {
-        AuthData session;
+    /**
+     * Resolves the session and the game a WebSocket command names, with one lookup.
+     *
+     * @return null if the auth token has no session or the game does not exist
+     */
+    public AuthorizedGame resolve(UserGameCommand command) throws SQLException {
+        AuthorizedGame context = gameDOA.getAuthorized(command.getAuthToken(), command.getGameID());
 
-        try {
-            session = authDOA.get(command.getAuthToken());
-        } catch (SQLException ex) {
+        if (context == null || context.game() == null) {
             return null;
         }
 
-        if (session == null) {
-            return null;
-        }
+        return context;
+    }
 
-        GameData gameData = gameDOA.get(command.getGameID().toString());
+    /**
+     * Stores an updated game.
+     *
+     * @throws dataaccess.VersionConflictException if the game changed since it was read
+     */
+    public void updateGame(GameData gameData) throws SQLException {
+        gameDOA.replace(gameData);
+    }
 
-        return gameData;
+    /**
+     * Removes a player from whichever seat they hold in a game. Starts from the copy the
+     * command already loaded and re-reads the game only if another update wins the race.
+     * Observers leave without touching the database.
+     */
+    public void leaveGame(AuthData user, GameData gameData) throws SQLException {
+        int gameID = gameData.gameID();
+        for (int attempt = 1; ; attempt++) {
+            GameData updateData;
+            if (Objects.equals(gameData.whiteUsername(), user.username())) {
+                updateData = new GameData(gameID, null, gameData.blackUsername(),
+                        gameData.gameName(), gameData.game(), gameData.version(), gameData.status());
+            } else if (Objects.equals(gameData.blackUsername(), user.username())) {
+                updateData = new GameData(gameID, gameData.whiteUsername(), null,
+                        gameData.gameName(), gameData.game(), gameData.version(), gameData.status());
+            } else {
+                return;
+            }
+
+            try {
+                gameDOA.replace(updateData);
+                return;
+            } catch (VersionConflictException ex) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+
+            gameData = gameDOA.get(String.valueOf(gameID));
+            if (gameData == null) {
+                return;
+            }
+        }
     }
 }
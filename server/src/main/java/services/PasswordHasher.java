@@ -0,0 +1,103 @@
+package services;
+
+import config.ServerConfig;
+import org.mindrot.jbcrypt.BCrypt;
+import tracing.Span;
+import tracing.Tracer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool instead of the HTTP
+ * request threads. The pool has a bounded queue; once it is full new work is refused
+ * with a {@link BusyException} rather than queued, which callers report as a 503.
+ */
+public class PasswordHasher {
+    private static final PasswordHasher INSTANCE = new PasswordHasher(
+            ServerConfig.getInt("bcrypt.cost", 10),
+            ServerConfig.getInt("bcrypt.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+            ServerConfig.getInt("bcrypt.queue", 64));
+
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PasswordHasher(int cost, int threads, int queueCapacity) {
+        this.cost = cost;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordHasher getInstance() {
+        return INSTANCE;
+    }
+
+    public String hash(String password) throws BusyException {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    public boolean check(String password, String hashed) throws BusyException {
+        return submit(() -> BCrypt.checkpw(password, hashed));
+    }
+
+    private <T> T submit(Callable<T> work) throws BusyException {
+        try (Span span = Tracer.span("bcrypt")) {
+            return executor.submit(work).get();
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            throw new BusyException();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * @return the number of hash/check requests waiting for a pool thread
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of hash/check requests currently running
+     */
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of requests refused because the queue was full
+     */
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    public long completedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public static class BusyException extends Exception {
+        public BusyException() {
+            super("password hashing queue is full");
+        }
+    }
+}
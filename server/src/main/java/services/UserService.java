@@ -1,9 +1,8 @@
 package services;
 
 import com.google.gson.Gson;
-import dataaccess.AuthDOA;
 import dataaccess.InterfaceDOA;
-import dataaccess.UserDOA;
+import dataaccess.Storage;
 import model.AuthData;
 import model.UserData;
 import requests.Response;
@@ -13,10 +12,17 @@ import java.util.Map;
 import java.util.UUID;
 
 public class UserService {
-    InterfaceDOA<AuthData> authDOA = new AuthDOA();
-    InterfaceDOA<UserData> userDOA = new UserDOA();
+    InterfaceDOA<AuthData> authDOA;
+    InterfaceDOA<UserData> userDOA;
+    PasswordHasher passwordHasher = PasswordHasher.getInstance();
 
     public UserService() {
+        this(Storage.get());
+    }
+
+    public UserService(Storage storage) {
+        this.authDOA = storage.authDOA();
+        this.userDOA = storage.userDOA();
     }
 
     public Response createUser(UserData newUser) {
@@ -36,8 +42,15 @@ public class UserService {
             return new Response(403, serializer.toJson(Map.of("message", "Error: already taken")));
         }
 
+        String hashedPassword;
+        try {
+            hashedPassword = passwordHasher.hash(newUser.password());
+        } catch (PasswordHasher.BusyException ex) {
+            return new Response(503, serializer.toJson(Map.of("message", "Error: server busy")));
+        }
+
         try {
-            userDOA.create(newUser);
+            userDOA.create(new UserData(newUser.username(), hashedPassword, newUser.email()));
         } catch (SQLException ex) {
             return new Response(500, serializer.toJson(Map.of("message", "Error: database error")));
         }
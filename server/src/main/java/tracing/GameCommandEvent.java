@@ -0,0 +1,23 @@
+package tracing;
+
+import jdk.jfr.*;
+
+/**
+ * One WebSocket command run on its game's mailbox. Engine and persistence events recorded
+ * on the same thread inside its duration belong to this command's game.
+ */
+@Name("chess.GameCommand")
+@Label("Game Command")
+@Category({"Chess", "WebSocket"})
+@Enabled(false)
+@StackTrace(false)
+public class GameCommandEvent extends Event {
+    @Label("Game ID")
+    public int gameID;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Database Statements")
+    public int statements;
+}
@@ -0,0 +1,23 @@
+package tracing;
+
+import jdk.jfr.*;
+
+/**
+ * One game loaded from storage, including parsing its JSON.
+ */
+@Name("chess.GameRead")
+@Label("Game Read")
+@Category({"Chess", "Persistence"})
+@Enabled(false)
+@StackTrace(false)
+public class GameReadEvent extends Event {
+    @Label("Game ID")
+    public int gameID;
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Payload Size")
+    @DataAmount
+    public int payloadSize;
+}
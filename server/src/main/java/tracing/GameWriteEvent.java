@@ -0,0 +1,26 @@
+package tracing;
+
+import jdk.jfr.*;
+
+/**
+ * One versioned game update, including serializing the game to JSON.
+ */
+@Name("chess.GameWrite")
+@Label("Game Write")
+@Category({"Chess", "Persistence"})
+@Enabled(false)
+@StackTrace(false)
+public class GameWriteEvent extends Event {
+    @Label("Game ID")
+    public int gameID;
+
+    @Label("Ply")
+    public int ply;
+
+    @Label("Payload Size")
+    @DataAmount
+    public int payloadSize;
+
+    @Label("Version Conflict")
+    public boolean conflict;
+}
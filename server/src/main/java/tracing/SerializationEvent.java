@@ -0,0 +1,32 @@
+package tracing;
+
+import jdk.jfr.*;
+
+/**
+ * One object converted to or from its wire or storage form by Gson or the binary codec.
+ */
+@Name("chess.Serialization")
+@Label("Serialization")
+@Category({"Chess", "Serialization"})
+@Enabled(false)
+@StackTrace(false)
+public class SerializationEvent extends Event {
+    @Label("Type")
+    public String type;
+
+    @Label("Format")
+    @Description("json or binary")
+    public String format;
+
+    @Label("Direction")
+    @Description("encode or decode")
+    public String direction;
+
+    @Label("Game ID")
+    @Description("0 when the payload is not tied to one game")
+    public int gameID;
+
+    @Label("Payload Size")
+    @DataAmount
+    public int payloadSize;
+}
@@ -0,0 +1,80 @@
+package tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One timed step of a traced request. Spans are opened with {@link Tracer#start} or
+ * {@link Tracer#span} and closed with try-with-resources; closing a span attaches it to
+ * its parent, and closing the root hands the whole tree to the exporter.
+ * <p>
+ * Requests that were not sampled get {@link #NOOP}, which records nothing.
+ */
+public final class Span implements AutoCloseable {
+    static final Span NOOP = new Span(null, null);
+
+    private final String name;
+    private final Span parent;
+    private final long startNanos = System.nanoTime();
+    private final List<Span> children = new ArrayList<>();
+    private final Map<String, Object> tags = new LinkedHashMap<>();
+    private long durationNanos = -1;
+
+    Span(String name, Span parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    public Span tag(String key, Object value) {
+        if (this != NOOP) {
+            tags.put(key, value);
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (this == NOOP || durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        if (parent != null) {
+            parent.children.add(this);
+        }
+        Tracer.ended(this);
+    }
+
+    public boolean isSampled() {
+        return this != NOOP;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    public long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return how long the span was open, or -1 while it is still open
+     */
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    public List<Span> children() {
+        return Collections.unmodifiableList(children);
+    }
+
+    public Map<String, Object> tags() {
+        return Collections.unmodifiableMap(tags);
+    }
+}
@@ -0,0 +1,78 @@
+package tracing;
+
+import com.google.gson.Gson;
+import config.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Receives each finished trace, as its root span.
+ */
+@FunctionalInterface
+public interface TraceExporter {
+    void export(Span root);
+
+    /**
+     * Logs each trace on one line at INFO, as nested brackets:
+     * {@code ws MAKE_MOVE 4.210ms gameID=7 [resolve 1.020ms [sql 0.950ms]] [rules 0.310ms] ...}
+     */
+    static TraceExporter log() {
+        Logger logger = LoggerFactory.getLogger("tracing");
+        return root -> {
+            if (logger.isInfoEnabled()) {
+                StringBuilder line = new StringBuilder();
+                render(root, line);
+                logger.info("trace {}", line);
+            }
+        };
+    }
+
+    /**
+     * Appends each trace to a file as one JSON object per line. Traces are written by a
+     * background thread; up to trace.fileQueue of them wait for it, and any more are dropped.
+     */
+    static TraceExporter file(Path path) {
+        Gson serializer = new Gson();
+        return new TraceFileWriter(path, root -> serializer.toJson(toMap(root, root.startNanos())),
+                ServerConfig.getInt("trace.fileQueue", 1024));
+    }
+
+    private static void render(Span span, StringBuilder out) {
+        out.append(span.name()).append(' ').append(millis(span.durationNanos())).append("ms");
+        span.tags().forEach((key, value) -> out.append(' ').append(key).append('=').append(value));
+        for (Span child : span.children()) {
+            out.append(" [");
+            render(child, out);
+            out.append(']');
+        }
+    }
+
+    private static Map<String, Object> toMap(Span span, long traceStart) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", span.name());
+        json.put("startMs", Math.round((span.startNanos() - traceStart) / 1e3) / 1e3);
+        json.put("durationMs", Math.round(span.durationNanos() / 1e3) / 1e3);
+        if (!span.tags().isEmpty()) {
+            json.put("tags", span.tags());
+        }
+        if (!span.children().isEmpty()) {
+            List<Map<String, Object>> children = new ArrayList<>();
+            for (Span child : span.children()) {
+                children.add(toMap(child, traceStart));
+            }
+            json.put("children", children);
+        }
+        return json;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,105 @@
+package tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Appends finished traces to a file from one background thread, so the request that
+ * finished a trace only pays for queueing it. The file is opened once and flushed each
+ * time the queue runs dry. When the queue is full the trace is dropped rather than
+ * making the request wait for the disk.
+ */
+final class TraceFileWriter implements TraceExporter {
+    private static final Logger log = LoggerFactory.getLogger("tracing");
+
+    private final Path path;
+    private final Function<Span, String> format;
+    private final BlockingQueue<Span> pending;
+    private final AtomicLong dropped = new AtomicLong();
+    private BufferedWriter writer;
+
+    /**
+     * @param format renders one trace as a single line
+     * @param capacity the most traces that may wait to be written
+     */
+    TraceFileWriter(Path path, Function<Span, String> format, int capacity) {
+        this.path = path;
+        this.format = format;
+        this.pending = new LinkedBlockingQueue<>(capacity);
+        Thread.ofPlatform().daemon().name("trace-writer").start(this::run);
+    }
+
+    @Override
+    public void export(Span root) {
+        if (!pending.offer(root)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of traces dropped because the writer had fallen behind
+     */
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    private void run() {
+        List<Span> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            pending.drainTo(batch);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Span> batch) {
+        try {
+            if (writer == null) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (Span root : batch) {
+                writer.write(format.apply(root));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            log.warn("could not write {} traces to {}", batch.size(), path, ex);
+            close();
+        }
+    }
+
+    // the next batch reopens the file
+    private void close() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException ex) {
+            log.debug("could not close {}", path, ex);
+        } finally {
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package tracing;
+
+import config.ServerConfig;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process tracing for requests and WebSocket commands. A handler opens a root span with
+ * {@link #start}; code below it, down to the SQL statements, opens child spans with
+ * {@link #span}, which are nested under whatever span is open on the same thread.
+ * <p>
+ * Only a {@code trace.sampleRate} fraction of roots are recorded, and it is zero unless
+ * configured. For the rest, every call returns {@link Span#NOOP} and costs a ThreadLocal
+ * read. Finished traces go to the log or, with {@code trace.export=file}, one JSON line
+ * each to {@code trace.file}.
+ */
+public final class Tracer {
+    private static final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    private static volatile double sampleRate = ServerConfig.getDouble("trace.sampleRate", 0);
+    private static volatile TraceExporter exporter = defaultExporter();
+
+    private Tracer() {
+    }
+
+    /**
+     * Opens a root span, if this request is sampled. Anything left open on this thread by
+     * an earlier request is discarded first.
+     */
+    public static Span start(String name) {
+        current.remove();
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return Span.NOOP;
+        }
+
+        Span root = new Span(name, null);
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * Opens a child of the span open on this thread, or returns a no-op span if there is none.
+     */
+    public static Span span(String name) {
+        Span parent = current.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+
+        Span child = new Span(name, parent);
+        current.set(child);
+        return child;
+    }
+
+    /**
+     * Tags the span open on this thread, if there is one.
+     */
+    public static void tag(String key, Object value) {
+        Span span = current.get();
+        if (span != null) {
+            span.tag(key, value);
+        }
+    }
+
+    /**
+     * Closes every span still open on this thread, ending its trace. For roots that are
+     * opened and closed in different callbacks, such as a REST request's before handler
+     * and request logger.
+     */
+    public static void finish() {
+        for (Span span = current.get(); span != null; span = current.get()) {
+            span.close();
+        }
+    }
+
+    public static void setSampleRate(double rate) {
+        sampleRate = rate;
+    }
+
+    public static void setExporter(TraceExporter traceExporter) {
+        exporter = traceExporter;
+    }
+
+    static void ended(Span span) {
+        if (span.parent() != null) {
+            current.set(span.parent());
+            return;
+        }
+
+        current.remove();
+        exporter.export(span);
+    }
+
+    private static TraceExporter defaultExporter() {
+        if ("file".equals(ServerConfig.getString("trace.export", "log"))) {
+            return TraceExporter.file(Path.of(ServerConfig.getString("trace.file", "data/traces.jsonl")));
+        }
+        return TraceExporter.log();
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 import org.junit.jupiter.api.*;
 import org.mindrot.jbcrypt.BCrypt;
@@ -22,7 +23,7 @@ import java.util.Map;
 public class DataAccessTests {
     InterfaceDOA<AuthData> authDOA;
     InterfaceDOA<UserData> userDOA;
-    InterfaceDOA<GameData> gameDOA;
+    InterfaceGameDOA gameDOA;
 
     AuthService authService;
 
@@ -436,4 +437,80 @@ public class DataAccessTests {
                     "List session negative was not successful.");
         } catch (SQLException ex){}
     }
+
+    @Test
+    @Order(28)
+    @DisplayName("List Game Summaries Positive Test")
+    public void listGameSummariesPosTest() {
+        try {
+            this.gameDOA.create(new GameData(1, "white", "black", "game name", null));
+            this.gameDOA.create(new GameData(2, "white", "black", "game name", null));
+            this.gameDOA.create(new GameData(3, "white", "black", "game name", null));
+
+            Collection<GameSummary> page = this.gameDOA.listSummaries(1, 1);
+
+            Assertions.assertEquals(1, page.size(),
+                    "List game summaries positive was not successful.");
+            Assertions.assertEquals(2, page.iterator().next().gameID(),
+                    "List game summaries positive was not successful.");
+        } catch (SQLException ex){}
+    }
+
+    @Test
+    @Order(29)
+    @DisplayName("List Game Summaries Negative Test")
+    public void listGameSummariesNegTest() {
+        try {
+            this.gameDOA.create(new GameData(1, "white", "black", "game name", null));
+
+            Collection<GameSummary> page = this.gameDOA.listSummaries(1, 10);
+
+            Assertions.assertTrue(page.isEmpty(),
+                    "List game summaries negative was not successful.");
+        } catch (SQLException ex){}
+    }
+
+    @Test
+    @Order(30)
+    @DisplayName("Insert Game Positive Test")
+    public void insertGamePosTest() {
+        try {
+            int firstID = this.gameDOA.insert(new GameData(0, null, null, "game name", null));
+            int secondID = this.gameDOA.insert(new GameData(0, null, null, "game name", null));
+
+            Assertions.assertTrue(secondID > firstID,
+                    "Insert game positive was not successful.");
+        } catch (SQLException ex){}
+    }
+
+    @Test
+    @Order(31)
+    @DisplayName("Insert Game Negative Test")
+    public void insertGameNegTest() {
+        try {
+            this.gameDOA.create(new GameData(1234, null, null, "game name", null));
+            int gameID = this.gameDOA.insert(new GameData(1234, null, null, "game name", null));
+
+            Assertions.assertNotEquals(1234, gameID,
+                    "Insert game negative was not successful.");
+        } catch (SQLException ex){}
+    }
+
+    @Test
+    @Order(32)
+    @DisplayName("Replace Game Version Conflict Test")
+    public void replaceGameConflictTest() {
+        try {
+            this.gameDOA.create(new GameData(1, null, "black", "game name", null));
+            GameData stored = this.gameDOA.get("1");
+
+            this.gameDOA.replace(new GameData(1, "white", "black", "game name", null, stored.version()));
+
+            Assertions.assertThrows(VersionConflictException.class, () ->
+                    this.gameDOA.replace(new GameData(1, "other", "black", "game name", null, stored.version())),
+                    "Replace game from a stale version was not rejected.");
+            Assertions.assertEquals("white", this.gameDOA.get("1").whiteUsername(),
+                    "Replace game version conflict was not successful.");
+        } catch (SQLException ex){}
+    }
 }
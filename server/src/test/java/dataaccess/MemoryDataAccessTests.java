@@ -0,0 +1,165 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collection;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class MemoryDataAccessTests {
+    Storage storage;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        this.storage = Storage.create("memory");
+        this.storage.initialize();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Memory Create User Negative Test")
+    public void createUserNegTest() throws SQLException {
+        this.storage.userDOA().create(new UserData("username", "password", "email"));
+
+        Assertions.assertThrows(SQLException.class, () ->
+                this.storage.userDOA().create(new UserData("username", "password", "email")),
+                "Duplicate user was not rejected.");
+        Assertions.assertEquals(1, this.storage.userDOA().list().size(),
+                "Memory create user negative was not successful.");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Memory Session Positive Test")
+    public void sessionPosTest() throws SQLException {
+        AuthData session = new AuthData("authToken", "username");
+        this.storage.authDOA().create(session);
+
+        Assertions.assertEquals(session, this.storage.authDOA().get("authToken"),
+                "Memory get session positive was not successful.");
+
+        this.storage.authDOA().delete(session);
+
+        Assertions.assertNull(this.storage.authDOA().get("authToken"),
+                "Memory delete session positive was not successful.");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Memory Insert And List Games Test")
+    public void insertGamesTest() throws SQLException {
+        int firstID = this.storage.gameDOA().insert(new GameData(0, null, null, "first", new ChessGame()));
+        int secondID = this.storage.gameDOA().insert(new GameData(0, null, null, "second", new ChessGame()));
+
+        Collection<GameSummary> page = this.storage.gameDOA().listSummaries(firstID, 10);
+
+        Assertions.assertTrue(secondID > firstID, "Memory insert game was not successful.");
+        Assertions.assertEquals(1, page.size(), "Memory list game summaries was not successful.");
+        Assertions.assertEquals("second", page.iterator().next().gameName(),
+                "Memory list game summaries was not successful.");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Memory Replace Game Version Conflict Test")
+    public void replaceGameConflictTest() throws SQLException {
+        int gameID = this.storage.gameDOA().insert(new GameData(0, null, null, "game", new ChessGame()));
+        GameData stored = this.storage.gameDOA().get(String.valueOf(gameID));
+
+        this.storage.gameDOA().replace(new GameData(gameID, "white", null, "game", stored.game(), stored.version()));
+
+        Assertions.assertThrows(VersionConflictException.class, () ->
+                this.storage.gameDOA().replace(new GameData(gameID, "other", null, "game", stored.game(),
+                        stored.version())),
+                "Replace game from a stale version was not rejected.");
+        Assertions.assertEquals("white", this.storage.gameDOA().get(String.valueOf(gameID)).whiteUsername(),
+                "Memory replace game was not successful.");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Memory Games Are Copied Test")
+    public void gamesAreCopiedTest() throws Exception {
+        int gameID = this.storage.gameDOA().insert(new GameData(0, null, null, "game", new ChessGame()));
+
+        this.storage.gameDOA().get(String.valueOf(gameID)).game().setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE,
+                this.storage.gameDOA().get(String.valueOf(gameID)).game().getTeamTurn(),
+                "A game read from memory storage was shared with the caller.");
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("File Storage Replay Test")
+    public void fileStorageReplayTest() throws SQLException, IOException {
+        Path directory = Files.createTempDirectory("chess-storage");
+        Path logFile = directory.resolve("chess.log");
+        System.setProperty("chess.storage.file.path", logFile.toString());
+        try {
+            Storage first = Storage.create("file");
+            first.initialize();
+            first.userDOA().create(new UserData("username", "password", "email"));
+            first.authDOA().create(new AuthData("authToken", "username"));
+            first.authDOA().delete(new AuthData("authToken", "username"));
+            int gameID = first.gameDOA().insert(new GameData(0, null, null, "game", new ChessGame()));
+            GameData stored = first.gameDOA().get(String.valueOf(gameID));
+            first.gameDOA().replace(new GameData(gameID, "username", null, "game", stored.game(), stored.version()));
+
+            Storage second = Storage.create("file");
+            second.initialize();
+
+            Assertions.assertNotNull(second.userDOA().get("username"), "Replayed user was missing.");
+            Assertions.assertNull(second.authDOA().get("authToken"), "Deleted session was replayed.");
+            GameData replayed = second.gameDOA().get(String.valueOf(gameID));
+            Assertions.assertEquals("username", replayed.whiteUsername(), "Replayed game was not the latest version.");
+            Assertions.assertEquals(stored.version() + 1, replayed.version(), "Replayed game version was wrong.");
+        } finally {
+            System.clearProperty("chess.storage.file.path");
+        }
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Memory Authorized Game Lookup Test")
+    public void getAuthorizedTest() throws SQLException {
+        this.storage.authDOA().create(new AuthData("authToken", "username"));
+        int gameID = this.storage.gameDOA().insert(new GameData(0, null, null, "game", new ChessGame()));
+
+        AuthorizedGame found = this.storage.gameDOA().getAuthorized("authToken", gameID);
+        Assertions.assertEquals("username", found.auth().username(), "Authorized lookup returned the wrong session.");
+        Assertions.assertEquals(gameID, found.game().gameID(), "Authorized lookup returned the wrong game.");
+
+        Assertions.assertNull(this.storage.gameDOA().getAuthorized("authToken", gameID + 1).game(),
+                "Authorized lookup found a game that does not exist.");
+        Assertions.assertNull(this.storage.gameDOA().getAuthorized("missing", gameID),
+                "Authorized lookup accepted an unknown auth token.");
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Memory Game Status Filter Test")
+    public void listByStatusTest() throws SQLException {
+        int finishedID = this.storage.gameDOA().insert(new GameData(0, null, null, "finished", new ChessGame()));
+        this.storage.gameDOA().insert(new GameData(0, null, null, "open", new ChessGame()));
+        GameData finished = this.storage.gameDOA().get(String.valueOf(finishedID));
+        this.storage.gameDOA().replace(new GameData(finishedID, null, null, "finished", finished.game(),
+                finished.version(), "CHECKMATE"));
+
+        Assertions.assertEquals("CHECKMATE", this.storage.gameDOA().get(String.valueOf(finishedID)).status(),
+                "Game status was not stored.");
+        Collection<GameSummary> page = this.storage.gameDOA().listSummaries(0, 10, "CHECKMATE");
+        Assertions.assertEquals(1, page.size(), "Status filter returned the wrong games.");
+        Assertions.assertEquals(finishedID, page.iterator().next().gameID());
+        Assertions.assertEquals(1, this.storage.gameDOA().listSummaries(0, 10, "NORMAL").size(),
+                "Status filter returned the wrong games.");
+    }
+}
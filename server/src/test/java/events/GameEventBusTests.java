@@ -0,0 +1,109 @@
+package events;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.*;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class GameEventBusTests {
+
+    @Test
+    @DisplayName("Local Bus Delivers To The Game's Subscriber")
+    public void localTest() {
+        List<GameEvent> received = new ArrayList<>();
+        try (GameEventBus bus = new LocalGameEventBus()) {
+            bus.subscribe(7, received::add);
+            bus.publish(GameEvent.status(7, "CHECKMATE"));
+            bus.publish(GameEvent.status(8, "RESIGN"));
+            bus.unsubscribe(7);
+            bus.publish(GameEvent.status(7, "STALEMATE"));
+        }
+
+        Assertions.assertEquals(List.of(GameEvent.status(7, "CHECKMATE")), received,
+                "The bus delivered events for the wrong games.");
+    }
+
+    @Test
+    @DisplayName("Broker Forwards Events To Other Subscribed Nodes In Order")
+    public void brokerTest() throws Exception {
+        BlockingQueue<GameEvent> publisherEvents = new LinkedBlockingQueue<>();
+        BlockingQueue<GameEvent> peerEvents = new LinkedBlockingQueue<>();
+        BlockingQueue<GameEvent> otherGameEvents = new LinkedBlockingQueue<>();
+
+        try (EventBroker broker = new EventBroker(0);
+             GameEventBus publisher = new SocketGameEventBus("localhost", broker.port());
+             GameEventBus peer = new SocketGameEventBus("localhost", broker.port());
+             GameEventBus other = new SocketGameEventBus("localhost", broker.port())) {
+            publisher.subscribe(7, publisherEvents::add);
+            peer.subscribe(7, peerEvents::add);
+            other.subscribe(8, otherGameEvents::add);
+            awaitConnections(broker, 3);
+            // a round trip through the broker, so every subscription is in before publishing
+            peer.publish(GameEvent.status(7, "NORMAL"));
+            Assertions.assertNotNull(publisherEvents.poll(5, TimeUnit.SECONDS), "The broker lost an event.");
+            peerEvents.clear();
+            publisherEvents.clear();
+
+            ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+            publisher.publish(GameEvent.notification(7, new NotificationMessage("moved"), "session-1"));
+            publisher.publish(GameEvent.move(7, new MoveMessage(move, 1, 42L)));
+            publisher.publish(GameEvent.status(7, "CHECKMATE"));
+
+            GameEvent notification = peerEvents.poll(5, TimeUnit.SECONDS);
+            GameEvent moved = peerEvents.poll(5, TimeUnit.SECONDS);
+            GameEvent status = peerEvents.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(status, "The peer did not receive every event.");
+            Assertions.assertEquals("moved", ((NotificationMessage) notification.payload()).getMessage());
+            Assertions.assertEquals("session-1", notification.excludeSession());
+            Assertions.assertEquals(move, ((MoveMessage) moved.payload()).getMove());
+            Assertions.assertEquals(42L, ((MoveMessage) moved.payload()).getPositionHash());
+            Assertions.assertEquals("CHECKMATE", status.payload());
+
+            Assertions.assertEquals(3, publisherEvents.size(), "The publisher did not get its own events once each.");
+            Assertions.assertTrue(otherGameEvents.isEmpty(), "A node received events for a game it did not join.");
+        }
+    }
+
+    @Test
+    @DisplayName("Publishing Does Not Wait On A Broker That Stops Reading")
+    public void stalledBrokerTest() throws Exception {
+        List<GameEvent> received = new ArrayList<>();
+        int events = 10_000;
+        String text = "x".repeat(1024);
+
+        // accepts the node and then never reads, so the socket's buffers fill after a few events
+        try (ServerSocket stalled = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             GameEventBus bus = new SocketGameEventBus("localhost", stalled.getLocalPort());
+             Socket accepted = stalled.accept()) {
+            bus.subscribe(7, received::add);
+
+            Thread publisher = Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < events; i++) {
+                    bus.publish(GameEvent.notification(7, new NotificationMessage(text), null));
+                }
+            });
+            publisher.join(Duration.ofSeconds(10));
+
+            Assertions.assertFalse(publisher.isAlive(), "Publishing blocked on the broker's socket.");
+            Assertions.assertEquals(events, received.size(), "This node's own events stopped arriving.");
+        }
+    }
+
+    private static void awaitConnections(EventBroker broker, int nodes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (broker.connectionCount() < nodes && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package server;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+/**
+ * Compares {@link CommandDecoder} with the two Gson passes MAKE_MOVE frames used to take:
+ * once into a UserGameCommand to read the type, then again into a MakeMoveCommand.
+ * Run it directly; it is not part of the test suite.
+ */
+public class CommandDecoderBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int FRAMES_PER_ROUND = 200_000;
+
+    public static void main(String[] args) {
+        var serializer = new Gson();
+        String frame = serializer.toJson(new MakeMoveCommand("5f0c7f5e-6e2b-4b7a-9d59-2d1a8c3b9e41", 1042,
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            twoPass(serializer, frame);
+            singlePass(frame);
+        }
+
+        long twoPassNanos = 0;
+        long singlePassNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            twoPassNanos += twoPass(serializer, frame);
+            singlePassNanos += singlePass(frame);
+        }
+
+        long frames = (long) ROUNDS * FRAMES_PER_ROUND;
+        System.out.printf("two Gson passes: %.0f ns/frame%n", (double) twoPassNanos / frames);
+        System.out.printf("CommandDecoder:  %.0f ns/frame%n", (double) singlePassNanos / frames);
+    }
+
+    private static long twoPass(Gson serializer, String frame) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < FRAMES_PER_ROUND; i++) {
+            UserGameCommand command = serializer.fromJson(frame, UserGameCommand.class);
+            if (command.getCommandType() == UserGameCommand.CommandType.MAKE_MOVE) {
+                sink += serializer.fromJson(frame, MakeMoveCommand.class).getMove().hashCode();
+            }
+        }
+        consume(sink);
+        return System.nanoTime() - start;
+    }
+
+    private static long singlePass(String frame) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < FRAMES_PER_ROUND; i++) {
+            UserGameCommand command = CommandDecoder.decode(frame);
+            if (command instanceof MakeMoveCommand makeMove) {
+                sink += makeMove.getMove().hashCode();
+            }
+        }
+        consume(sink);
+        return System.nanoTime() - start;
+    }
+
+    private static void consume(int sink) {
+        if (sink == 42) {
+            System.out.print("");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package server;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.*;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+public class CommandDecoderTests {
+
+    @Test
+    @DisplayName("Decodes What The Client Sends")
+    public void roundTripTest() {
+        var serializer = new Gson();
+        UserGameCommand connect = new UserGameCommand(UserGameCommand.CommandType.CONNECT, "token", 12);
+        MakeMoveCommand move = new MakeMoveCommand("token", 12, new ChessMove(
+                new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT));
+
+        Assertions.assertEquals(connect, CommandDecoder.decode(serializer.toJson(connect)));
+
+        UserGameCommand decoded = CommandDecoder.decode(serializer.toJson(move));
+        Assertions.assertInstanceOf(MakeMoveCommand.class, decoded, "MAKE_MOVE was not decoded as a move.");
+        Assertions.assertEquals(move, decoded);
+    }
+
+    @Test
+    @DisplayName("Field Order And Unknown Fields Do Not Matter")
+    public void fieldOrderTest() {
+        UserGameCommand decoded = CommandDecoder.decode("{\"move\":{\"chessEndPosition\":{\"col\":5,\"row\":4}," +
+                "\"chessStartPosition\":{\"row\":2,\"col\":5}},\"extra\":[1,2],\"gameID\":3," +
+                "\"authToken\":\"abc\",\"commandType\":\"MAKE_MOVE\"}");
+
+        Assertions.assertEquals(new MakeMoveCommand("abc", 3,
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)), decoded);
+    }
+
+    @Test
+    @DisplayName("Missing And Malformed Input")
+    public void malformedTest() {
+        UserGameCommand unknown = CommandDecoder.decode("{\"commandType\":\"DANCE\",\"gameID\":1}");
+        Assertions.assertNull(unknown.getCommandType(), "Unknown command type should decode as null.");
+        Assertions.assertNull(unknown.getAuthToken());
+
+        Assertions.assertThrows(JsonParseException.class, () -> CommandDecoder.decode("not json"));
+        Assertions.assertThrows(JsonParseException.class, () -> CommandDecoder.decode("{\"gameID\":\"twelve\"}"));
+    }
+}
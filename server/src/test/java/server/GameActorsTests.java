@@ -0,0 +1,112 @@
+package server;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GameActorsTests {
+    ExecutorService executor;
+    GameActors gameActors;
+
+    @BeforeEach
+    public void setup() {
+        this.executor = Executors.newFixedThreadPool(8);
+        this.gameActors = new GameActors(this.executor);
+    }
+
+    @AfterEach
+    public void teardown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Commands For One Game Run In Order")
+    public void sameGameInOrderTest() throws InterruptedException {
+        int commands = 2000;
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(commands);
+
+        for (int i = 0; i < commands; i++) {
+            int command = i;
+            this.gameActors.submit(1, () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                processed.add(command);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS), "Not every command was run.");
+        Assertions.assertEquals(0, overlaps.get(), "Commands for one game ran concurrently.");
+        for (int i = 0; i < commands; i++) {
+            Assertions.assertEquals(Integer.valueOf(i), processed.get(i), "Commands for one game ran out of order.");
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Different Games Run In Parallel")
+    public void differentGamesParallelTest() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+
+        for (int gameID = 1; gameID <= 2; gameID++) {
+            this.gameActors.submit(gameID, () -> {
+                bothStarted.countDown();
+                try {
+                    if (bothStarted.await(5, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS), "Two games did not run at the same time.");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Idle Mailboxes Are Removed")
+    public void idleMailboxesRemovedTest() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        this.gameActors.submit(1, done::countDown);
+
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS), "Command was not run.");
+        for (int i = 0; i < 100 && this.gameActors.activeCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, this.gameActors.activeCount(), "Idle mailbox was not removed.");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("A Command That Throws An Error Does Not Stop Its Game")
+    public void errorTest() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        this.gameActors.submit(1, () -> {
+            throw new NoClassDefFoundError("dataaccess.DatabaseManager");
+        });
+        this.gameActors.submit(1, done::countDown);
+
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS), "The game's next command never ran.");
+        for (int i = 0; i < 100 && this.gameActors.activeCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, this.gameActors.activeCount(), "The failed game's mailbox was not removed.");
+    }
+}
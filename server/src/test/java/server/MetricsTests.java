@@ -0,0 +1,55 @@
+package server;
+
+import org.junit.jupiter.api.*;
+import websocket.messages.NotificationMessage;
+
+import java.util.List;
+
+public class MetricsTests {
+
+    @Test
+    @DisplayName("Histogram Quantiles Stay Within Precision")
+    public void quantileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        Assertions.assertEquals(10_000, histogram.count());
+        long p99 = histogram.valueAtQuantile(0.99);
+        Assertions.assertTrue(Math.abs(p99 - 9_900_000) < 9_900_000 * 0.02,
+                "p99 should be within 2% of 9.9ms, was " + p99);
+        Assertions.assertEquals(10_000_000, histogram.valueAtQuantile(1.0),
+                "p100 should be the largest value recorded.");
+        Assertions.assertEquals(0, new LatencyHistogram().valueAtQuantile(0.5),
+                "An empty histogram should report zero.");
+    }
+
+    @Test
+    @DisplayName("Scrape Renders Prometheus Text")
+    public void scrapeTest() {
+        Metrics metrics = new Metrics();
+        metrics.latency("chess_ws_command_seconds", "Command latency.", "command", "MAKE_MOVE").record(2_000_000);
+        metrics.counter("chess_ws_errors_total", "Errors.", () -> 3);
+
+        String text = metrics.scrape();
+
+        Assertions.assertTrue(text.contains("# TYPE chess_ws_command_seconds summary\n"), text);
+        Assertions.assertTrue(text.contains("chess_ws_command_seconds{command=\"MAKE_MOVE\",quantile=\"0.99\"} "), text);
+        Assertions.assertTrue(text.contains("chess_ws_command_seconds_count{command=\"MAKE_MOVE\"} 1\n"), text);
+        Assertions.assertTrue(text.contains("# TYPE chess_ws_errors_total counter\nchess_ws_errors_total 3\n"), text);
+    }
+
+    @Test
+    @DisplayName("Broadcast Fan-Out Is Timed By Message Type")
+    public void fanoutTest() {
+        Metrics metrics = new Metrics();
+        Broadcaster broadcaster = new Broadcaster(8, client -> false, client -> false,
+                type -> metrics.latency("chess_ws_broadcast_seconds", "Fan-out.", "message", type));
+
+        broadcaster.broadcastTo(List.of(), new NotificationMessage("hello"), client -> true, client -> { });
+
+        Assertions.assertTrue(metrics.scrape().contains(
+                "chess_ws_broadcast_seconds_count{message=\"NotificationMessage\"} 1\n"), metrics.scrape());
+    }
+}
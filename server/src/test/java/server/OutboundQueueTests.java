@@ -0,0 +1,130 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class OutboundQueueTests {
+    List<Object> written;
+    List<WriteCallback> inFlight;
+    OutboundQueue queue;
+
+    @BeforeEach
+    public void setup() {
+        this.written = new ArrayList<>();
+        this.inFlight = new ArrayList<>();
+        // a socket that never completes a write on its own, so the test decides when it drains
+        this.queue = new OutboundQueue((payload, callback) -> {
+            this.written.add(payload);
+            this.inFlight.add(callback);
+        }, 3);
+    }
+
+    private void completeWrite() {
+        this.inFlight.removeFirst().writeSuccess();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Writes One At A Time In Order")
+    public void inOrderTest() {
+        Assertions.assertTrue(this.queue.offer("a", false, () -> {}));
+        Assertions.assertTrue(this.queue.offer("b", false, () -> {}));
+        Assertions.assertTrue(this.queue.offer("c", false, () -> {}));
+
+        Assertions.assertEquals(List.of("a"), this.written, "More than one write was in flight.");
+
+        completeWrite();
+        completeWrite();
+
+        Assertions.assertEquals(List.of("a", "b", "c"), this.written, "Writes were out of order.");
+        Assertions.assertEquals(0, this.queue.size(), "Queue did not drain.");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Overflow Keeps Only The Latest Board")
+    public void compactLoadGameTest() {
+        this.queue.offer("first", false, () -> {});
+        this.queue.offer("board 1", true, () -> {});
+        this.queue.offer("note", false, () -> {});
+        this.queue.offer("board 2", true, () -> {});
+
+        Assertions.assertTrue(this.queue.offer("board 3", true, () -> {}), "Board update was not compacted.");
+        Assertions.assertEquals(2, this.queue.compactedCount());
+
+        completeWrite();
+        completeWrite();
+        completeWrite();
+
+        Assertions.assertEquals(List.of("first", "note", "board 3"), this.written, "Stale boards were sent.");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Overflow By Another Message Keeps The Newest Board")
+    public void compactKeepsNewestBoardTest() {
+        this.queue.offer("first", false, () -> {});
+        this.queue.offer("board 1", true, () -> {});
+        this.queue.offer("note", false, () -> {});
+        this.queue.offer("board 2", true, () -> {});
+
+        Assertions.assertTrue(this.queue.offer("move", false, () -> {}), "Stale board was not compacted.");
+        Assertions.assertEquals(1, this.queue.compactedCount());
+
+        completeWrite();
+        completeWrite();
+        completeWrite();
+
+        Assertions.assertEquals(List.of("first", "note", "board 2", "move"), this.written,
+                "The latest board was dropped.");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Overflow Without Boards Closes The Queue")
+    public void overflowTest() {
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(this.queue.offer("note " + i, false, () -> {}));
+        }
+
+        Assertions.assertFalse(this.queue.offer("one too many", false, () -> {}), "Slow consumer was not cut off.");
+        Assertions.assertTrue(this.queue.isClosed());
+        Assertions.assertFalse(this.queue.offer("later", false, () -> {}), "Closed queue accepted a message.");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Failed Write Reports Its Sender")
+    public void failedWriteTest() {
+        AtomicInteger failures = new AtomicInteger();
+        this.queue.offer("a", false, failures::incrementAndGet);
+        this.queue.offer("b", false, () -> {});
+
+        this.inFlight.removeFirst().writeFailed(new RuntimeException("socket closed"));
+
+        Assertions.assertEquals(1, failures.get(), "Failure was not reported.");
+        Assertions.assertTrue(this.queue.isClosed());
+        Assertions.assertEquals(List.of("a"), this.written, "Wrote after the socket failed.");
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Compactions Are Reported To The Owner")
+    public void compactionReportedTest() {
+        AtomicLong reported = new AtomicLong();
+        OutboundQueue reporting = new OutboundQueue((payload, callback) -> { }, 2, reported::addAndGet);
+        reporting.offer("first", false, () -> {});
+        reporting.offer("board 1", true, () -> {});
+        reporting.offer("board 2", true, () -> {});
+
+        reporting.offer("board 3", true, () -> {});
+
+        Assertions.assertEquals(2, reported.get(), "Discarded boards were not reported.");
+    }
+}
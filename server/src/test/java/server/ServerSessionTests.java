@@ -0,0 +1,190 @@
+package server;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import dataaccess.Storage;
+import events.GameEvent;
+import events.LocalGameEventBus;
+import io.javalin.websocket.WsConnectContext;
+import io.javalin.websocket.WsContext;
+import model.AuthData;
+import model.GameData;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.*;
+import websocket.commands.UserGameCommand;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ServerSessionTests {
+    private static final String AUTH_TOKEN = "authToken";
+
+    Server server;
+    Set<Integer> subscribed;
+    Map<Integer, Consumer<GameEvent>> handlers;
+    Map<Integer, Executor> remoteEvents;
+    int gameID;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        Storage storage = Storage.create("memory");
+        storage.initialize();
+        storage.authDOA().create(new AuthData(AUTH_TOKEN, "username"));
+        this.gameID = storage.gameDOA().insert(new GameData(0, null, null, "game", new ChessGame()));
+
+        this.subscribed = ConcurrentHashMap.newKeySet();
+        this.handlers = new ConcurrentHashMap<>();
+        this.remoteEvents = new ConcurrentHashMap<>();
+        this.server = new Server(storage, new LocalGameEventBus() {
+            @Override
+            public void subscribe(int gameID, Consumer<GameEvent> handler, Executor remote) {
+                subscribed.add(gameID);
+                handlers.put(gameID, handler);
+                remoteEvents.put(gameID, remote);
+                super.subscribe(gameID, handler, remote);
+            }
+
+            @Override
+            public void unsubscribe(int gameID) {
+                subscribed.remove(gameID);
+                super.unsubscribe(gameID);
+            }
+        });
+    }
+
+    @AfterEach
+    public void teardown() {
+        this.server.stop();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Leaving Releases The Game")
+    public void leaveReleasesGameTest() throws InterruptedException {
+        List<String> sent = new CopyOnWriteArrayList<>();
+        WsContext ctx = new WsConnectContext("session", session(sent, WriteCallback::writeSuccess));
+
+        this.server.receive(ctx, command(UserGameCommand.CommandType.CONNECT));
+        await(() -> sent.stream().anyMatch(frame -> frame.contains("LOAD_GAME")));
+        Assertions.assertEquals(1, gameState().get("gameStatus"), "Connecting did not track the game.");
+        Assertions.assertTrue(this.subscribed.contains(this.gameID), "Connecting did not subscribe to the game.");
+
+        this.server.receive(ctx, command(UserGameCommand.CommandType.LEAVE));
+        await(() -> this.subscribed.isEmpty());
+
+        Map<String, Object> state = gameState();
+        Assertions.assertEquals(0, state.get("gameStatus"), "Leaving left the game's status behind.");
+        Assertions.assertEquals(0, state.get("lastMoveAt"), "Leaving left the game's last move behind.");
+        Assertions.assertEquals(0, state.get("sessionsByGame"), "Leaving left the session in the game.");
+
+        // another node's event that was already on its way when the game was released
+        this.remoteEvents.get(this.gameID).execute(() ->
+                this.handlers.get(this.gameID).accept(GameEvent.status(this.gameID, "RESIGN")));
+        Thread.sleep(100);
+        Assertions.assertEquals(0, gameState().get("gameStatus"), "A late event brought a released game back.");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Dropping The Last Session Releases The Game")
+    public void dropReleasesGameTest() throws InterruptedException {
+        WsContext ctx = new WsConnectContext("session", session(new CopyOnWriteArrayList<>(),
+                callback -> callback.writeFailed(new IOException("connection reset"))));
+
+        this.server.receive(ctx, command(UserGameCommand.CommandType.CONNECT));
+        await(() -> Integer.valueOf(0).equals(gameState().get("gameStatus")) && this.subscribed.isEmpty());
+
+        Assertions.assertEquals(0, gameState().get("sessionsByGame"),
+                "A session whose send failed was left in the game.");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Events From Other Nodes Wait For The Running Command")
+    public void remoteEventWaitsTest() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        WsContext ctx = new WsConnectContext("session", session(new CopyOnWriteArrayList<>(), callback -> {
+            writing.countDown();
+            try {
+                written.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            callback.writeSuccess();
+        }));
+
+        this.server.receive(ctx, command(UserGameCommand.CommandType.CONNECT));
+        Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS), "The command never sent the board.");
+
+        // the CONNECT is still running, held on its reply, when the bus hands over another node's event
+        this.remoteEvents.get(this.gameID).execute(() ->
+                this.handlers.get(this.gameID).accept(GameEvent.status(this.gameID, "RESIGN")));
+        Thread.sleep(100);
+        Assertions.assertEquals("NORMAL", status(), "A remote event ran while the game's command was running.");
+
+        written.countDown();
+        await(() -> "RESIGN".equals(status()));
+    }
+
+    private String status() {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> games = (List<Map<String, Object>>) this.server.adminReport(1).get("games");
+        return (String) games.get(0).get("status");
+    }
+
+    private String command(UserGameCommand.CommandType type) {
+        return new Gson().toJson(new UserGameCommand(type, AUTH_TOKEN, this.gameID));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> gameState() {
+        return (Map<String, Object>) this.server.adminReport(0).get("state");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the server.");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * An open Jetty session whose writes are recorded and then completed by {@code complete}.
+     */
+    private static Session session(List<String> sent, Consumer<WriteCallback> complete) {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendString") && args.length == 2) {
+                        sent.add((String) args[0]);
+                        complete.accept((WriteCallback) args[1]);
+                    }
+                    return null;
+                });
+
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> true;
+                    case "getRemote" -> remote;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "session";
+                    default -> null;
+                });
+    }
+}
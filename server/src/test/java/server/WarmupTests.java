@@ -0,0 +1,16 @@
+package server;
+
+import org.junit.jupiter.api.*;
+
+public class WarmupTests {
+
+    @Test
+    @DisplayName("Warmup Plays Legal Synthetic Games")
+    public void warmupTest() {
+        int plies = Warmup.run(3, 40);
+
+        Assertions.assertTrue(plies > 0, "Warmup did not play any moves.");
+        Assertions.assertTrue(plies <= 3 * 40, "Warmup played past the ply limit.");
+        Assertions.assertEquals(0, Warmup.run(0, 40), "Warmup played games when none were asked for.");
+    }
+}
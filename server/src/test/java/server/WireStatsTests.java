@@ -0,0 +1,49 @@
+package server;
+
+import org.junit.jupiter.api.*;
+
+public class WireStatsTests {
+
+    @Test
+    @DisplayName("Counts Raw Bytes Per Delivery")
+    public void rawBytesTest() {
+        WireStats stats = new WireStats(1);
+        String json = "{\"serverMessageType\":\"NOTIFICATION\"}";
+        byte[] binary = {1, 2, 3};
+        int size = stats.encoded(json);
+
+        stats.sent(json, size, false);
+        stats.sent(json, size, true);
+        stats.sent(binary, stats.encoded(binary), false);
+
+        Assertions.assertEquals(3, stats.frameCount());
+        Assertions.assertEquals(2L * size + 3, stats.rawBytes());
+    }
+
+    @Test
+    @DisplayName("Estimates Compression Of Repetitive Payloads")
+    public void compressionTest() {
+        WireStats stats = new WireStats(1);
+        Assertions.assertEquals(1.0, stats.compressionRatio(), "Ratio before any sample should be 1.");
+
+        String board = "{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},".repeat(64);
+        stats.sent(board, stats.encoded(board), true);
+
+        Assertions.assertTrue(stats.compressionRatio() < 0.2,
+                "Repetitive board JSON should deflate well, ratio was " + stats.compressionRatio());
+        Assertions.assertTrue(stats.estimatedCompressedBytes() < stats.rawBytes());
+    }
+
+    @Test
+    @DisplayName("Sessions Without permessage-deflate Are Not Estimated")
+    public void uncompressedTest() {
+        WireStats stats = new WireStats(1);
+
+        String board = "{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},".repeat(64);
+        stats.sent(board, stats.encoded(board), false);
+
+        Assertions.assertEquals(1.0, stats.compressionRatio(), "A ratio was reported with no compressed session.");
+        Assertions.assertEquals(0, stats.compressedRawBytes());
+        Assertions.assertEquals(stats.rawBytes(), stats.estimatedCompressedBytes());
+    }
+}
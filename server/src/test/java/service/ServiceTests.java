@@ -16,10 +16,12 @@ import requests.JoinGame;
 import requests.Response;
 import services.AuthService;
 import services.GameService;
+import services.PasswordHasher;
 import services.UserService;
 
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class ServiceTests {
@@ -270,4 +272,43 @@ public class ServiceTests {
             Assertions.assertNotEquals(joinedGame.whiteUsername(), session.username(), "Get games normal was not successful.");
         } catch (SQLException ex){}
     }
+
+    @Test
+    @Order(14)
+    @DisplayName("Password Hasher Positive Test")
+    public void passwordHasherPositiveTest() throws PasswordHasher.BusyException {
+        PasswordHasher hasher = new PasswordHasher(4, 1, 4);
+
+        String hashed = hasher.hash("password");
+
+        Assertions.assertTrue(hasher.check("password", hashed), "Password hasher positive was not successful.");
+        Assertions.assertFalse(hasher.check("wrong", hashed), "Password hasher positive was not successful.");
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Password Hasher Saturated Test")
+    public void passwordHasherSaturatedTest() throws InterruptedException {
+        PasswordHasher hasher = new PasswordHasher(12, 1, 1);
+        AtomicInteger busy = new AtomicInteger();
+
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    hasher.hash("password");
+                } catch (PasswordHasher.BusyException ex) {
+                    busy.incrementAndGet();
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        Assertions.assertTrue(busy.get() > 0, "Saturated password hasher did not refuse work.");
+        Assertions.assertEquals(busy.get(), hasher.rejectedCount(), "Password hasher rejections were not counted.");
+    }
 }
@@ -0,0 +1,125 @@
+package tracing;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class TracerTests {
+    private final List<Span> exported = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        Tracer.setExporter(exported::add);
+    }
+
+    @AfterEach
+    public void reset() {
+        Tracer.setSampleRate(0);
+        Tracer.setExporter(TraceExporter.log());
+    }
+
+    @Test
+    @DisplayName("Nested Spans Are Exported With Their Root")
+    public void nestedSpanTest() {
+        Tracer.setSampleRate(1);
+
+        try (Span root = Tracer.start("ws MAKE_MOVE")) {
+            root.tag("gameID", 7);
+            try (Span resolve = Tracer.span("resolve")) {
+                try (Span sql = Tracer.span("sql")) {
+                    sql.tag("statement", "SELECT 1");
+                }
+            }
+            try (Span rules = Tracer.span("rules")) {
+                Assertions.assertTrue(rules.isSampled());
+            }
+        }
+
+        Assertions.assertEquals(1, exported.size(), "The finished trace was not exported once.");
+        Span root = exported.get(0);
+        Assertions.assertEquals(7, root.tags().get("gameID"));
+        Assertions.assertEquals(List.of("resolve", "rules"), root.children().stream().map(Span::name).toList());
+        Assertions.assertEquals("sql", root.children().get(0).children().get(0).name());
+        Assertions.assertTrue(root.durationNanos() >= root.children().get(0).durationNanos());
+    }
+
+    @Test
+    @DisplayName("Unsampled Requests Record Nothing")
+    public void unsampledTest() {
+        Tracer.setSampleRate(0);
+
+        try (Span root = Tracer.start("http GET /game")) {
+            Assertions.assertFalse(root.isSampled());
+            Assertions.assertFalse(Tracer.span("sql").isSampled(), "A child span was recorded without a root.");
+        }
+
+        Assertions.assertTrue(exported.isEmpty(), "An unsampled trace was exported.");
+    }
+
+    @Test
+    @DisplayName("Finish Closes Spans Left Open")
+    public void finishTest() {
+        Tracer.setSampleRate(1);
+
+        Tracer.start("http POST /game");
+        Tracer.span("sql");
+        Tracer.finish();
+
+        Assertions.assertEquals(1, exported.size(), "The trace was not ended by finish.");
+        Assertions.assertEquals(1, exported.get(0).children().size());
+        Assertions.assertFalse(Tracer.span("after").isSampled(), "A span outlived its finished trace.");
+    }
+
+    @Test
+    @DisplayName("File Exporter Appends One Line Per Trace")
+    public void fileExportTest() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("traces");
+        Path path = dir.resolve("nested").resolve("traces.jsonl");
+        Tracer.setExporter(TraceExporter.file(path));
+        Tracer.setSampleRate(1);
+
+        for (int i = 0; i < 3; i++) {
+            try (Span root = Tracer.start("ws MAKE_MOVE")) {
+                root.tag("gameID", i);
+                Tracer.span("sql").close();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(path) || Files.readAllLines(path).size() < 3) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "The traces were not written.");
+            Thread.sleep(10);
+        }
+        List<String> lines = Files.readAllLines(path);
+        Assertions.assertEquals(3, lines.size(), "Each trace was not written once.");
+        Assertions.assertTrue(lines.get(2).startsWith("{\"name\":\"ws MAKE_MOVE\""), lines.get(2));
+        Assertions.assertTrue(lines.get(2).contains("\"children\":[{\"name\":\"sql\""), lines.get(2));
+    }
+
+    @Test
+    @DisplayName("File Exporter Drops Traces Once Its Queue Is Full")
+    public void fileExportDropTest() throws IOException {
+        // the writer is held on the first trace it takes, so at most that one and two queued get through
+        CountDownLatch stalled = new CountDownLatch(1);
+        TraceFileWriter writer = new TraceFileWriter(Files.createTempFile("traces", ".jsonl"), root -> {
+            try {
+                stalled.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return root.name();
+        }, 2);
+
+        for (int i = 0; i < 10; i++) {
+            writer.export(new Span("trace " + i, null));
+        }
+        stalled.countDown();
+
+        Assertions.assertTrue(writer.droppedCount() >= 7, "A full queue made export wait instead of dropping.");
+    }
+}
@@ -1,4 +1,7 @@
 package chess;
+
+import chess.jfr.BoardCopyEvent;
+
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -97,7 +100,11 @@ public class ChessBoard {
     }
 
     public ChessBoard copy() {
+            BoardCopyEvent event = new BoardCopyEvent();
+            event.begin();
+
             ChessBoard clone = new ChessBoard();
+            int pieces = 0;
             for (int row = 0; row < 8; row++) {
                 for (int col = 0; col < 8; col ++) {
                     ChessPiece selectedPiece = this.board[row][col];
@@ -106,12 +113,17 @@ public class ChessBoard {
                         clone.board[row][col] = null;
                     } else {
                         clone.board[row][col] = new ChessPiece(selectedPiece.getTeamColor(), selectedPiece.getPieceType());
+                        pieces++;
 //                        clone.board[row][col] = selectedPiece;
                     }
 
                 }
             }
 
+            if (event.shouldCommit()) {
+                event.pieceCount = pieces;
+                event.commit();
+            }
             return clone;
 
     }
@@ -1,5 +1,8 @@
 package chess;
 
+import chess.jfr.GameStateEvent;
+import chess.jfr.ValidMovesEvent;
+
 import java.util.*;
 
 /**
@@ -11,6 +14,7 @@ import java.util.*;
 public class ChessGame {
     private TeamColor currentTeam;
     private ChessBoard board = new ChessBoard();
+    private int ply = 0;
     private static final int CHESS_BOARD_LENGTH = 8;
 
     public ChessGame() {
@@ -50,6 +54,9 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        ValidMovesEvent event = new ValidMovesEvent();
+        event.begin();
+
         ChessPiece selectedPiece = this.board.getPiece(startPosition);
         Collection<ChessMove> safeMoves = new HashSet<>();
 
@@ -68,6 +75,13 @@ public class ChessGame {
             });
             this.board = copyBoard.copy();
 
+            if (event.shouldCommit()) {
+                event.pieceType = selectedPiece.getPieceType().name();
+                event.candidateCount = possibleMoves.size();
+                event.moveCount = safeMoves.size();
+                event.ply = this.ply;
+                event.commit();
+            }
             return safeMoves;
         } else {
             return null;
@@ -122,6 +136,25 @@ public class ChessGame {
         } else {
             this.currentTeam = TeamColor.BLACK;
         }
+        this.ply++;
+    }
+
+    /**
+     * @return the number of half-moves made in this game
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    /**
+     * @return the {@link PositionHash} of the current position
+     */
+    public long positionHash() {
+        return PositionHash.of(this);
     }
 
     private CheckResult generateMoves(ChessBoard board, TeamColor teamColor) {
@@ -225,9 +258,14 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        GameStateEvent event = new GameStateEvent();
+        event.begin();
+
         Collection<ChessMove> safeTeamMoves = kingCheck(teamColor);
+        boolean checkmate = safeTeamMoves.isEmpty();
 
-        return safeTeamMoves.isEmpty();
+        commitGameState(event, "checkmate", teamColor, checkmate);
+        return checkmate;
     }
 
     /**
@@ -238,6 +276,16 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        GameStateEvent event = new GameStateEvent();
+        event.begin();
+
+        boolean stalemate = hasNoMovesOutOfCheck(teamColor);
+
+        commitGameState(event, "stalemate", teamColor, stalemate);
+        return stalemate;
+    }
+
+    private boolean hasNoMovesOutOfCheck(TeamColor teamColor) {
         if (isInCheck(teamColor)) {
             return false;
         }
@@ -263,6 +311,16 @@ public class ChessGame {
         return true;
     }
 
+    private void commitGameState(GameStateEvent event, String check, TeamColor teamColor, boolean result) {
+        if (event.shouldCommit()) {
+            event.check = check;
+            event.team = teamColor.name();
+            event.result = result;
+            event.ply = this.ply;
+            event.commit();
+        }
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
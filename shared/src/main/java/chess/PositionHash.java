@@ -0,0 +1,55 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hash of a game position: the pieces on the board and the side to move.
+ * <p>
+ * The keys come from a fixed seed, so the server and every client compute the same
+ * hash for the same position. A client that applies a move locally compares its hash
+ * with the server's to confirm its board has not drifted.
+ */
+public final class PositionHash {
+    private static final int SQUARES = 64;
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[] PIECE_KEYS;
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int kinds = ChessGame.TeamColor.values().length * ChessPiece.PieceType.values().length;
+
+        PIECE_KEYS = new long[kinds * SQUARES];
+        for (int i = 0; i < PIECE_KEYS.length; i++) {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private PositionHash() {
+    }
+
+    public static long of(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long hash = 0;
+
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece != null) {
+                    hash ^= PIECE_KEYS[key(piece) * SQUARES + (row - 1) * 8 + (col - 1)];
+                }
+            }
+        }
+
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            hash ^= BLACK_TO_MOVE;
+        }
+        return hash;
+    }
+
+    private static int key(ChessPiece piece) {
+        return piece.getTeamColor().ordinal() * ChessPiece.PieceType.values().length + piece.getPieceType().ordinal();
+    }
+}
@@ -0,0 +1,17 @@
+package chess.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One {@link chess.ChessBoard#copy()}. Move validation copies the board once per candidate
+ * move, so this is the engine's main source of allocation.
+ */
+@Name("chess.BoardCopy")
+@Label("Board Copy")
+@Category({"Chess", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+public class BoardCopyEvent extends Event {
+    @Label("Pieces")
+    public int pieceCount;
+}
@@ -0,0 +1,26 @@
+package chess.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One checkmate or stalemate test, each of which generates every move for a side.
+ */
+@Name("chess.GameState")
+@Label("Game State Check")
+@Category({"Chess", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+public class GameStateEvent extends Event {
+    @Label("Check")
+    @Description("checkmate or stalemate")
+    public String check;
+
+    @Label("Team")
+    public String team;
+
+    @Label("Result")
+    public boolean result;
+
+    @Label("Ply")
+    public int ply;
+}
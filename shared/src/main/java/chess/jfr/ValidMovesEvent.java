@@ -0,0 +1,26 @@
+package chess.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One call to {@link chess.ChessGame#validMoves}: a piece's pseudo-legal moves, each
+ * played on a board copy to rule out leaving the king in check.
+ */
+@Name("chess.ValidMoves")
+@Label("Valid Moves")
+@Category({"Chess", "Engine"})
+@Enabled(false)
+@StackTrace(false)
+public class ValidMovesEvent extends Event {
+    @Label("Piece")
+    public String pieceType;
+
+    @Label("Candidate Moves")
+    public int candidateCount;
+
+    @Label("Valid Moves")
+    public int moveCount;
+
+    @Label("Ply")
+    public int ply;
+}
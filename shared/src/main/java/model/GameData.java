@@ -4,7 +4,29 @@ import chess.ChessGame;
 
 import java.util.Objects;
 
-public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+/**
+ * A stored game. The version is bumped by the store on every successful replace and
+ * is used to reject updates that were computed from a stale copy of the row. The status
+ * is NORMAL while the game can be played and RESIGN, CHECKMATE or STALEMATE once it is over.
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game,
+                       int version, String status) {
+
+    public GameData {
+        // rows and request bodies from before statuses were stored have none
+        if (status == null) {
+            status = "NORMAL";
+        }
+    }
+
+    public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+        this(gameID, whiteUsername, blackUsername, gameName, game, 0);
+    }
+
+    public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game,
+                    int version) {
+        this(gameID, whiteUsername, blackUsername, gameName, game, version, "NORMAL");
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -12,13 +34,13 @@ public record GameData(int gameID, String whiteUsername, String blackUsername, S
             return false;
         }
         GameData gameData = (GameData) o;
-        return gameID == gameData.gameID && Objects.equals(game, gameData.game)
+        return gameID == gameData.gameID && version == gameData.version && Objects.equals(game, gameData.game)
                 && Objects.equals(gameName, gameData.gameName) && Objects.equals(whiteUsername, gameData.whiteUsername)
-                && Objects.equals(blackUsername, gameData.blackUsername);
+                && Objects.equals(blackUsername, gameData.blackUsername) && Objects.equals(status, gameData.status);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(gameID, whiteUsername, blackUsername, gameName, game);
+        return Objects.hash(gameID, whiteUsername, blackUsername, gameName, game, version, status);
     }
 }
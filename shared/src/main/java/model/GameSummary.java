@@ -0,0 +1,28 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * A listing entry for a game: everything in {@link GameData} except the board itself.
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName, String status) {
+    public GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+        this(gameID, whiteUsername, blackUsername, gameName, "NORMAL");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GameSummary that = (GameSummary) o;
+        return gameID == that.gameID && Objects.equals(gameName, that.gameName)
+                && Objects.equals(whiteUsername, that.whiteUsername) && Objects.equals(blackUsername, that.blackUsername)
+                && Objects.equals(status, that.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(gameID, whiteUsername, blackUsername, gameName, status);
+    }
+}
@@ -0,0 +1,27 @@
+package requests;
+
+import java.util.Objects;
+
+/**
+ * @param status only list games with this status, or all games if null
+ */
+public record ListGames(String authToken, Integer cursor, Integer limit, String status) {
+    public ListGames(String authToken, Integer cursor, Integer limit) {
+        this(authToken, cursor, limit, null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ListGames listGames = (ListGames) o;
+        return Objects.equals(authToken(), listGames.authToken()) && Objects.equals(cursor(), listGames.cursor())
+                && Objects.equals(limit(), listGames.limit()) && Objects.equals(status(), listGames.status());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(authToken(), cursor(), limit(), status());
+    }
+}
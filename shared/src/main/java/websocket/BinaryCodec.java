@@ -0,0 +1,285 @@
+package websocket;
+
+import chess.*;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+import websocket.messages.NotificationMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary framing for WebSocket traffic, for clients that connect with
+ * {@code /ws?format=binary}. JSON stays the default.
+ * <p>
+ * Every frame starts with a type byte.
+ * <ul>
+ *     <li>Commands carry a varint gameID and the auth token. MAKE_MOVE adds a packed move:
+ *     two bytes holding the start square, end square and promotion piece.</li>
+ *     <li>LOAD_GAME carries the side to move, a varint ply and the board as 64 four-bit
+ *     squares, 32 bytes in all.</li>
+ *     <li>MOVE carries a varint ply, a packed move and the 8-byte position hash.</li>
+ *     <li>ERROR and NOTIFICATION carry their text.</li>
+ * </ul>
+ * Strings are a varint of the UTF-8 length plus one, with 0 meaning null.
+ */
+public final class BinaryCodec {
+    private static final byte CONNECT = 0x01;
+    private static final byte MAKE_MOVE = 0x02;
+    private static final byte LEAVE = 0x03;
+    private static final byte RESIGN = 0x04;
+    private static final byte RESYNC = 0x05;
+
+    private static final byte LOAD_GAME = 0x10;
+    private static final byte ERROR = 0x11;
+    private static final byte NOTIFICATION = 0x12;
+    private static final byte MOVE = 0x13;
+
+    private static final int BOARD_LENGTH = 8;
+    // nibble for a black piece is this plus the piece's nibble as white
+    private static final int BLACK_PIECE = 8;
+
+    private BinaryCodec() {
+    }
+
+    public static byte[] encodeCommand(UserGameCommand command) {
+        Writer out = new Writer();
+        out.write(commandTag(command.getCommandType()));
+        out.writeVarint(command.getGameID());
+        out.writeString(command.getAuthToken());
+        if (command instanceof MakeMoveCommand makeMove) {
+            out.writeMove(makeMove.getMove());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the command, as a {@link MakeMoveCommand} for MAKE_MOVE
+     * @throws IllegalArgumentException if the frame is not a well-formed command
+     */
+    public static UserGameCommand decodeCommand(ByteBuffer frame) {
+        try {
+            byte tag = frame.get();
+            int gameID = readVarint(frame);
+            String authToken = readString(frame);
+
+            return switch (tag) {
+                case CONNECT -> new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID);
+                case MAKE_MOVE -> new MakeMoveCommand(authToken, gameID, readMove(frame));
+                case LEAVE -> new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
+                case RESIGN -> new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameID);
+                case RESYNC -> new UserGameCommand(UserGameCommand.CommandType.RESYNC, authToken, gameID);
+                default -> throw new IllegalArgumentException("unknown command type " + tag);
+            };
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("truncated command", ex);
+        }
+    }
+
+    /**
+     * Encodes a LOAD_GAME, ERROR, NOTIFICATION or MOVE message.
+     */
+    public static byte[] encodeMessage(Object message) {
+        Writer out = new Writer();
+
+        if (message instanceof LoadGameMessage loadGame) {
+            ChessGame game = loadGame.getGame();
+            out.write(LOAD_GAME);
+            out.write(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 0 : 1);
+            out.writeVarint(game.getPly());
+            out.writeBoard(game.getBoard());
+        } else if (message instanceof ErrorMessage error) {
+            out.write(ERROR);
+            out.writeString(error.getMessage());
+        } else if (message instanceof NotificationMessage notification) {
+            out.write(NOTIFICATION);
+            out.writeString(notification.getMessage());
+        } else if (message instanceof MoveMessage move) {
+            out.write(MOVE);
+            out.writeVarint(move.getPly());
+            out.writeMove(move.getMove());
+            out.writeLong(move.getPositionHash());
+        } else {
+            throw new IllegalArgumentException("no binary form for " + message.getClass().getSimpleName());
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @return a {@link LoadGameMessage}, {@link ErrorMessage}, {@link NotificationMessage}
+     * or {@link MoveMessage}
+     * @throws IllegalArgumentException if the frame is not a well-formed message
+     */
+    public static Object decodeMessage(ByteBuffer frame) {
+        try {
+            byte tag = frame.get();
+
+            return switch (tag) {
+                case LOAD_GAME -> {
+                    ChessGame game = new ChessGame();
+                    game.setTeamTurn(frame.get() == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+                    game.setPly(readVarint(frame));
+                    game.setBoard(readBoard(frame));
+                    yield new LoadGameMessage(game);
+                }
+                case ERROR -> new ErrorMessage(readString(frame));
+                case NOTIFICATION -> new NotificationMessage(readString(frame));
+                case MOVE -> {
+                    int ply = readVarint(frame);
+                    ChessMove move = readMove(frame);
+                    yield new MoveMessage(move, ply, frame.getLong());
+                }
+                default -> throw new IllegalArgumentException("unknown message type " + tag);
+            };
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("truncated message", ex);
+        }
+    }
+
+    private static byte commandTag(UserGameCommand.CommandType type) {
+        return switch (type) {
+            case CONNECT -> CONNECT;
+            case MAKE_MOVE -> MAKE_MOVE;
+            case LEAVE -> LEAVE;
+            case RESIGN -> RESIGN;
+            case RESYNC -> RESYNC;
+        };
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte next = in.get();
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarint(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length - 1 > in.remaining()) {
+            throw new IllegalArgumentException("string runs past the frame");
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ChessMove readMove(ByteBuffer in) {
+        int packed = in.getShort() & 0xFFFF;
+        int promotion = packed >>> 12;
+
+        return new ChessMove(position(packed & 0x3F), position((packed >>> 6) & 0x3F),
+                promotion == 0 ? null : pieceType(promotion));
+    }
+
+    private static ChessBoard readBoard(ByteBuffer in) {
+        ChessBoard board = new ChessBoard();
+
+        for (int square = 0; square < BOARD_LENGTH * BOARD_LENGTH; square += 2) {
+            int pair = in.get() & 0xFF;
+            int[] nibbles = {pair >>> 4, pair & 0x0F};
+
+            for (int i = 0; i < 2; i++) {
+                int nibble = nibbles[i];
+                if (nibble == 0) {
+                    continue;
+                }
+                ChessGame.TeamColor color = nibble >= BLACK_PIECE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                board.addPiece(position(square + i), new ChessPiece(color, pieceType(nibble & 0x07)));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @param code a piece type's ordinal plus one, as packed into moves and boards
+     */
+    private static ChessPiece.PieceType pieceType(int code) {
+        ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+        if (code < 1 || code > types.length) {
+            throw new IllegalArgumentException("unknown piece type " + code);
+        }
+        return types[code - 1];
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / BOARD_LENGTH + 1, square % BOARD_LENGTH + 1);
+    }
+
+    private static int square(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        if (row < 1 || row > BOARD_LENGTH || col < 1 || col > BOARD_LENGTH) {
+            throw new IllegalArgumentException("position off the board");
+        }
+        return (row - 1) * BOARD_LENGTH + (col - 1);
+    }
+
+    private static class Writer extends ByteArrayOutputStream {
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeMove(ChessMove move) {
+            ChessPiece.PieceType promotion = move.getPromotionPiece();
+            int packed = square(move.getStartPosition())
+                    | square(move.getEndPosition()) << 6
+                    | (promotion == null ? 0 : promotion.ordinal() + 1) << 12;
+            write(packed >>> 8);
+            write(packed);
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void writeBoard(ChessBoard board) {
+            int pending = 0;
+            for (int square = 0; square < BOARD_LENGTH * BOARD_LENGTH; square++) {
+                ChessPiece piece = board.getPiece(position(square));
+                int nibble = 0;
+                if (piece != null) {
+                    nibble = piece.getPieceType().ordinal() + 1;
+                    if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) {
+                        nibble += BLACK_PIECE;
+                    }
+                }
+
+                if (square % 2 == 0) {
+                    pending = nibble << 4;
+                } else {
+                    write(pending | nibble);
+                }
+            }
+        }
+    }
+}
@@ -10,27 +10,14 @@ import java.util.Objects;
  * Note: You can add to this class, but you should not alter the existing
  * methods.
  */
-public class MakeMoveCommand {
-    private final UserGameCommand.CommandType commandType = UserGameCommand.CommandType.MAKE_MOVE;
-    private final String authToken;
-    private final Integer gameID;
+public class MakeMoveCommand extends UserGameCommand {
     private final ChessMove move;
 
     public MakeMoveCommand(String authToken, Integer gameID, ChessMove move) {
-        this.authToken = authToken;
-        this.gameID = gameID;
+        super(UserGameCommand.CommandType.MAKE_MOVE, authToken, gameID);
         this.move = move;
     }
 
-    public UserGameCommand.CommandType getCommandType() {
-        return commandType;
-    }
-    public String getAuthToken() {
-        return authToken;
-    }
-    public Integer getGameID() {
-        return gameID;
-    }
     public ChessMove getMove() {return move;}
 
     @Override
@@ -26,7 +26,9 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        // asks for a fresh LOAD_GAME after a client's board has drifted from the server's
+        RESYNC
     }
 
     public CommandType getCommandType() {
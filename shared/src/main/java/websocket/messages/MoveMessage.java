@@ -0,0 +1,26 @@
+package websocket.messages;
+
+import chess.ChessMove;
+
+/**
+ * A single move applied to a game, sent in place of a full LOAD_GAME to clients that
+ * asked for moves. {@code ply} counts half-moves from the start of the game and
+ * {@code positionHash} is the {@link chess.PositionHash} of the board after the move.
+ */
+public class MoveMessage {
+    ServerMessage.ServerMessageType serverMessageType = ServerMessage.ServerMessageType.MOVE;
+    ChessMove move;
+    int ply;
+    long positionHash;
+
+    public MoveMessage(ChessMove move, int ply, long positionHash) {
+        this.move = move;
+        this.ply = ply;
+        this.positionHash = positionHash;
+    }
+
+    public ServerMessage.ServerMessageType getServerMessageType() {return this.serverMessageType;}
+    public ChessMove getMove() {return this.move;}
+    public int getPly() {return this.ply;}
+    public long getPositionHash() {return this.positionHash;}
+}
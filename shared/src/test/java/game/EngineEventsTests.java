@@ -0,0 +1,57 @@
+package game;
+
+import chess.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class EngineEventsTests {
+
+    @Test
+    @DisplayName("Engine Events Are Recorded When Enabled")
+    public void recordedTest() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("chess.ValidMoves");
+            recording.enable("chess.GameState");
+            recording.start();
+
+            ChessGame game = new ChessGame();
+            game.validMoves(new ChessPosition(1, 2));
+            game.isInStalemate(ChessGame.TeamColor.WHITE);
+
+            recording.stop();
+            Path file = Files.createTempFile("engine", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+            Files.deleteIfExists(file);
+        }
+
+        RecordedEvent knight = events.stream()
+                .filter(event -> event.getEventType().getName().equals("chess.ValidMoves"))
+                .filter(event -> event.getString("pieceType").equals("KNIGHT"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals(2, knight.getInt("moveCount"), "A starting knight has two moves.");
+
+        RecordedEvent stalemate = events.stream()
+                .filter(event -> event.getEventType().getName().equals("chess.GameState"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals("stalemate", stalemate.getString("check"));
+        Assertions.assertFalse(stalemate.getBoolean("result"));
+    }
+
+    @Test
+    @DisplayName("Engine Events Are Off By Default")
+    public void disabledTest() {
+        Assertions.assertFalse(new chess.jfr.ValidMovesEvent().isEnabled());
+        Assertions.assertFalse(new chess.jfr.BoardCopyEvent().isEnabled());
+    }
+}
@@ -0,0 +1,43 @@
+package game;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PositionHashTests {
+
+    @Test
+    @DisplayName("Same Position Same Hash")
+    public void samePositionTest() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        Assertions.assertEquals(first.positionHash(), second.positionHash());
+
+        // reach the same position by two different move orders
+        first.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+        first.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        first.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+
+        second.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        second.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        second.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+
+        Assertions.assertEquals(first.positionHash(), second.positionHash(), "Transposition hashed differently.");
+        Assertions.assertEquals(3, first.getPly());
+    }
+
+    @Test
+    @DisplayName("Different Position Different Hash")
+    public void differentPositionTest() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.positionHash();
+
+        ChessGame blackToMove = new ChessGame();
+        blackToMove.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(start, blackToMove.positionHash(), "Side to move was not hashed.");
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertNotEquals(start, game.positionHash(), "Move did not change the hash.");
+    }
+}
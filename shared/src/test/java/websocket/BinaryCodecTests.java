@@ -0,0 +1,64 @@
+package websocket;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveMessage;
+
+import java.nio.ByteBuffer;
+
+public class BinaryCodecTests {
+
+    @Test
+    @DisplayName("Command Round Trip")
+    public void commandTest() {
+        UserGameCommand connect = new UserGameCommand(UserGameCommand.CommandType.CONNECT, "token", 300);
+        Assertions.assertEquals(connect, BinaryCodec.decodeCommand(ByteBuffer.wrap(BinaryCodec.encodeCommand(connect))));
+
+        MakeMoveCommand move = new MakeMoveCommand("token", 7, new ChessMove(
+                new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        byte[] frame = BinaryCodec.encodeCommand(move);
+
+        Assertions.assertEquals(move, BinaryCodec.decodeCommand(ByteBuffer.wrap(frame)));
+        Assertions.assertTrue(frame.length < 12, "Move frame was not compact: " + frame.length + " bytes.");
+    }
+
+    @Test
+    @DisplayName("Server Message Round Trip")
+    public void messageTest() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove opening = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(opening);
+
+        byte[] frame = BinaryCodec.encodeMessage(new LoadGameMessage(game));
+        LoadGameMessage loaded = (LoadGameMessage) BinaryCodec.decodeMessage(ByteBuffer.wrap(frame));
+        Assertions.assertEquals(game, loaded.getGame(), "Board did not survive a round trip.");
+        Assertions.assertEquals(1, loaded.getGame().getPly());
+        Assertions.assertEquals(game.positionHash(), loaded.getGame().positionHash());
+
+        MoveMessage move = new MoveMessage(opening, 1, game.positionHash());
+        MoveMessage decoded = (MoveMessage) BinaryCodec.decodeMessage(ByteBuffer.wrap(BinaryCodec.encodeMessage(move)));
+        Assertions.assertEquals(opening, decoded.getMove());
+        Assertions.assertEquals(move.getPositionHash(), decoded.getPositionHash());
+
+        ErrorMessage error = (ErrorMessage) BinaryCodec.decodeMessage(
+                ByteBuffer.wrap(BinaryCodec.encodeMessage(new ErrorMessage("Error: Invalid move.\n"))));
+        Assertions.assertEquals("Error: Invalid move.\n", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Malformed Frames Rejected")
+    public void malformedTest() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[]{0x7F, 0x01, 0x00})));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[]{0x02, 0x01})));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BinaryCodec.decodeCommand(ByteBuffer.wrap(new byte[]{0x01, 0x01, 0x40})));
+    }
+}